@@ -0,0 +1,171 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes synthetic, valid Conjure YAML definitions for benchmarks. Each definition declares objects, enums, unions and
+ * aliases in turn, where objects and aliases reference previously declared types through containers, plus errors and
+ * a single service whose endpoints take and return these types.
+ */
+public final class BenchmarkInputs {
+
+    /** Preset sizes of a single definition file. */
+    public enum Size {
+        SMALL(10, 2),
+        MEDIUM(500, 50),
+        HUGE(20_000, 1_000);
+
+        private final int numTypes;
+        private final int numEndpoints;
+
+        Size(int numTypes, int numEndpoints) {
+            this.numTypes = numTypes;
+            this.numEndpoints = numEndpoints;
+        }
+
+        public int numTypes() {
+            return numTypes;
+        }
+
+        public int numEndpoints() {
+            return numEndpoints;
+        }
+    }
+
+    private static final int TYPES_PER_ERROR = 10;
+
+    private BenchmarkInputs() {}
+
+    /** Creates an empty temporary directory, to be removed with {@link #deleteRecursively}. */
+    public static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("conjure-benchmarks");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a definition with the given numbers of types and endpoints to the file {@code f<fileIndex>.yml} in the
+     * given directory, and returns the file. Names are unique per file index. The imported files, given relative to
+     * the directory, must be definitions written by this method, and each object references a type of one of them.
+     */
+    public static Path writeDefinition(
+            Path dir, int fileIndex, int numTypes, int numEndpoints, List<String> importedFiles) {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("types:\n");
+        if (!importedFiles.isEmpty()) {
+            yaml.append("  conjure-imports:\n");
+            for (int i = 0; i < importedFiles.size(); i++) {
+                yaml.append("    imported").append(i).append(": ").append(importedFiles.get(i)).append('\n');
+            }
+        }
+        yaml.append("  definitions:\n");
+        yaml.append("    default-package: com.palantir.benchmarks.f").append(fileIndex).append('\n');
+        yaml.append("    objects:\n");
+        for (int i = 0; i < numTypes; i++) {
+            yaml.append("      T").append(i).append(":\n");
+            switch (i % 4) {
+                case 0:
+                    appendObject(yaml, i, importedFiles.size());
+                    break;
+                case 1:
+                    yaml.append("        values:\n          - FIRST\n          - SECOND\n          - THIRD\n");
+                    break;
+                case 2:
+                    yaml.append("        union:\n          first: T").append(i - 2).append('\n')
+                            .append("          second: list<string>\n");
+                    break;
+                default:
+                    yaml.append("        alias: list<T").append(i - 1).append(">\n");
+                    break;
+            }
+        }
+        if (numTypes >= TYPES_PER_ERROR) {
+            yaml.append("    errors:\n");
+            for (int i = 0; i < numTypes / TYPES_PER_ERROR; i++) {
+                yaml.append("      Error").append(i).append(":\n")
+                        .append("        namespace: Benchmarks\n")
+                        .append("        code: INVALID_ARGUMENT\n")
+                        .append("        safe-args:\n          id: string\n")
+                        .append("        unsafe-args:\n          reason: optional<string>\n");
+            }
+        }
+        if (numEndpoints > 0) {
+            yaml.append("services:\n");
+            yaml.append("  Service").append(fileIndex).append(":\n");
+            yaml.append("    name: Service ").append(fileIndex).append('\n');
+            yaml.append("    package: com.palantir.benchmarks.f").append(fileIndex).append('\n');
+            yaml.append("    base-path: /f").append(fileIndex).append('\n');
+            yaml.append("    endpoints:\n");
+            for (int i = 0; i < numEndpoints; i++) {
+                int type = 4 * (i % ((numTypes + 3) / 4));
+                yaml.append("      endpoint").append(i).append(":\n")
+                        .append("        http: POST /e").append(i).append("/{id}\n")
+                        .append("        args:\n")
+                        .append("          id: string\n")
+                        .append("          limit:\n            type: optional<integer>\n")
+                        .append("            param-type: query\n")
+                        .append("          body: T").append(type).append('\n')
+                        .append("        returns: list<T").append(type).append(">\n");
+            }
+        }
+
+        Path file = dir.resolve("f" + fileIndex + ".yml");
+        try {
+            Files.write(file, yaml.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    private static void appendObject(StringBuilder yaml, int index, int numImports) {
+        yaml.append("        fields:\n")
+                .append("          id: string\n")
+                .append("          count: integer\n")
+                .append("          created: datetime\n")
+                .append("          description: optional<string>\n")
+                .append("          tags: set<string>\n");
+        if (index > 0) {
+            yaml.append("          previous: map<string, T").append(index - 1).append(">\n");
+        }
+        if (index > 1) {
+            yaml.append("          history: list<T").append(index - 2).append(">\n");
+        }
+        if (numImports > 0) {
+            yaml.append("          imported: imported").append((index / 4) % numImports).append(".T0\n");
+        }
+    }
+}
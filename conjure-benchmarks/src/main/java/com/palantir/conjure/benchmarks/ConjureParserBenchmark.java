@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures reading and deserializing a single YAML definition file with {@link ConjureParser#parse(File)}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConjureParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkInputs.Size size;
+
+    private Path dir;
+    private File file;
+
+    @Setup
+    public void setup() {
+        dir = BenchmarkInputs.createTempDirectory();
+        file = BenchmarkInputs.writeDefinition(dir, 0, size.numTypes(), size.numEndpoints(), Collections.emptyList())
+                .toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkInputs.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public ConjureSourceFile parse() {
+        return ConjureParser.parse(file);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes a synthetic corpus of valid Conjure YAML definitions of the shape given by a {@link CorpusSpec}, for scale
+ * tests and benchmarks. The corpus is a deterministic function of the spec, including its seed.
+ * <p>
+ * Files are arranged in {@link CorpusSpec#importDepth} + 1 layers, and each file imports up to {@link
+ * CorpusSpec#importFanOut} random files of the layer below it. A file declares its enums, objects, unions and
+ * aliases in this order, and each type references only primitives, types declared before it in the same file and
+ * types of the files it imports, such that there are no recursive types. Nested optionals are avoided by never
+ * nesting an optional directly in an optional, and by never aliasing an optional.
+ */
+public final class CorpusGenerator {
+    private static final List<String> PRIMITIVES =
+            ImmutableList.of("string", "integer", "double", "boolean", "safelong", "datetime", "uuid", "rid");
+    private static final List<String> MAP_KEYS = ImmutableList.of("string", "integer", "uuid", "rid");
+    private static final List<String> ERROR_CODES =
+            ImmutableList.of("INVALID_ARGUMENT", "NOT_FOUND", "CONFLICT", "FAILED_PRECONDITION", "INTERNAL");
+    private static final List<String> HTTP_METHODS = ImmutableList.of("GET", "POST", "PUT", "DELETE");
+    private static final int MAX_UNION_MEMBERS = 4;
+    private static final int MAX_ENUM_VALUES = 5;
+    private static final int MAX_ERROR_ARGS = 2;
+
+    private final CorpusSpec spec;
+    private final Random random;
+    // the qualified names of the types declared by each file written so far, by file index
+    private final List<List<String>> exportedTypes = new ArrayList<>();
+
+    private CorpusGenerator(CorpusSpec spec) {
+        this.spec = spec;
+        this.random = new Random(spec.seed());
+    }
+
+    /** Writes the corpus of the given spec to the files {@code f<index>.yml} in the given directory, in order. */
+    public static List<Path> generate(CorpusSpec spec, Path dir) throws IOException {
+        return new CorpusGenerator(spec).generate(dir);
+    }
+
+    private List<Path> generate(Path dir) throws IOException {
+        List<List<Integer>> layers = layers();
+        List<Path> files = new ArrayList<>(spec.files());
+        for (int layer = 0; layer < layers.size(); layer++) {
+            for (int fileIndex : layers.get(layer)) {
+                List<Integer> imports = new ArrayList<>();
+                if (layer > 0) {
+                    List<Integer> candidates = new ArrayList<>(layers.get(layer - 1));
+                    Collections.shuffle(candidates, random);
+                    imports.addAll(candidates.subList(0, Math.min(spec.importFanOut(), candidates.size())));
+                }
+                Path file = dir.resolve(fileName(fileIndex));
+                Files.write(file, definition(fileIndex, imports).getBytes(StandardCharsets.UTF_8));
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /** Partitions the file indexes into consecutive, non-empty layers. */
+    private List<List<Integer>> layers() {
+        int numLayers = Math.min(spec.importDepth() + 1, spec.files());
+        List<List<Integer>> layers = new ArrayList<>(numLayers);
+        for (int i = 0; i < numLayers; i++) {
+            layers.add(new ArrayList<>());
+        }
+        for (int fileIndex = 0; fileIndex < spec.files(); fileIndex++) {
+            layers.get((int) ((long) fileIndex * numLayers / spec.files())).add(fileIndex);
+        }
+        return layers;
+    }
+
+    private String definition(int fileIndex, List<Integer> imports) {
+        String conjurePackage = "com.palantir.corpus.f" + fileIndex;
+        List<String> references = new ArrayList<>();
+        List<String> declared = new ArrayList<>();
+        StringBuilder yaml = new StringBuilder("types:\n");
+        if (!imports.isEmpty()) {
+            yaml.append("  conjure-imports:\n");
+            for (int i = 0; i < imports.size(); i++) {
+                String namespace = "imp" + i;
+                yaml.append("    ").append(namespace).append(": ").append(fileName(imports.get(i))).append('\n');
+                for (String name : exportedTypes.get(imports.get(i))) {
+                    references.add(namespace + "." + name);
+                }
+            }
+        }
+        yaml.append("  definitions:\n");
+        yaml.append("    default-package: ").append(conjurePackage).append('\n');
+        yaml.append("    objects:\n");
+
+        for (int i = 0; i < spec.enumsPerFile(); i++) {
+            String name = declare("Enum" + i, declared, yaml);
+            yaml.append("        values:\n");
+            int numValues = 1 + random.nextInt(MAX_ENUM_VALUES);
+            for (int value = 0; value < numValues; value++) {
+                yaml.append("          - VALUE_").append(value).append('\n');
+            }
+            references.add(name);
+        }
+        for (int i = 0; i < spec.objectsPerFile(); i++) {
+            String name = declare("Object" + i, declared, yaml);
+            if (spec.fieldsPerObject() == 0) {
+                yaml.append("        fields: {}\n");
+            } else {
+                yaml.append("        fields:\n");
+                for (int field = 0; field < spec.fieldsPerObject(); field++) {
+                    yaml.append("          field").append(field).append(": ")
+                            .append(type(references, spec.containerNesting(), true)).append('\n');
+                }
+            }
+            references.add(name);
+        }
+        for (int i = 0; i < spec.unionsPerFile(); i++) {
+            String name = declare("Union" + i, declared, yaml);
+            yaml.append("        union:\n");
+            int numMembers = 1 + random.nextInt(MAX_UNION_MEMBERS);
+            for (int member = 0; member < numMembers; member++) {
+                yaml.append("          member").append(member).append(": ")
+                        .append(type(references, spec.containerNesting(), true)).append('\n');
+            }
+            references.add(name);
+        }
+        for (int i = 0; i < spec.aliasesPerFile(); i++) {
+            String name = declare("Alias" + i, declared, yaml);
+            // the first alias of each chain aliases a fresh type, the others their predecessor
+            String aliased = i % spec.aliasChainLength() == 0
+                    ? type(references, spec.containerNesting(), false)
+                    : "Alias" + (i - 1);
+            yaml.append("        alias: ").append(aliased).append('\n');
+            references.add(name);
+        }
+        // files are written in order of their index
+        exportedTypes.add(fileIndex, declared);
+
+        if (spec.errorsPerFile() > 0) {
+            yaml.append("    errors:\n");
+            for (int i = 0; i < spec.errorsPerFile(); i++) {
+                yaml.append("      Error").append(i).append(":\n")
+                        .append("        namespace: Corpus\n")
+                        .append("        code: ").append(pick(ERROR_CODES)).append('\n');
+                appendErrorArgs(yaml, "safe-args", references);
+                appendErrorArgs(yaml, "unsafe-args", references);
+            }
+        }
+
+        if (spec.servicesPerFile() > 0) {
+            yaml.append("services:\n");
+            for (int service = 0; service < spec.servicesPerFile(); service++) {
+                appendService(yaml, fileIndex, service, conjurePackage, references);
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static String declare(String name, List<String> declared, StringBuilder yaml) {
+        declared.add(name);
+        yaml.append("      ").append(name).append(":\n");
+        return name;
+    }
+
+    private void appendErrorArgs(StringBuilder yaml, String key, List<String> references) {
+        int numArgs = random.nextInt(MAX_ERROR_ARGS + 1);
+        if (numArgs == 0) {
+            return;
+        }
+        yaml.append("        ").append(key).append(":\n");
+        for (int arg = 0; arg < numArgs; arg++) {
+            yaml.append("          arg").append(arg).append(": ")
+                    .append(type(references, spec.containerNesting(), true)).append('\n');
+        }
+    }
+
+    private void appendService(
+            StringBuilder yaml, int fileIndex, int service, String conjurePackage, List<String> references) {
+        yaml.append("  F").append(fileIndex).append("Service").append(service).append(":\n")
+                .append("    name: Service ").append(service).append(" of file ").append(fileIndex).append('\n')
+                .append("    package: ").append(conjurePackage).append('\n')
+                .append("    base-path: /f").append(fileIndex).append("/s").append(service).append('\n');
+        if (spec.endpointsPerService() == 0) {
+            yaml.append("    endpoints: {}\n");
+            return;
+        }
+        yaml.append("    endpoints:\n");
+        for (int endpoint = 0; endpoint < spec.endpointsPerService(); endpoint++) {
+            String method = pick(HTTP_METHODS);
+            yaml.append("      endpoint").append(endpoint).append(":\n")
+                    .append("        http: ").append(method).append(" /e").append(endpoint).append("/{id}\n")
+                    .append("        args:\n")
+                    .append("          id: string\n")
+                    .append("          limit:\n")
+                    .append("            type: optional<integer>\n")
+                    .append("            param-type: query\n");
+            if (!method.equals("GET") && random.nextBoolean()) {
+                yaml.append("          body: ").append(type(references, spec.containerNesting(), true)).append('\n');
+            }
+            if (random.nextInt(5) != 0) {
+                yaml.append("        returns: ").append(type(references, spec.containerNesting(), true)).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Returns a random type expression of at most the given container nesting, which is an optional only if allowed.
+     */
+    private String type(List<String> references, int nesting, boolean allowOptional) {
+        if (nesting == 0 || random.nextInt(3) == 0) {
+            return references.isEmpty() || random.nextBoolean() ? pick(PRIMITIVES) : pick(references);
+        }
+        switch (random.nextInt(allowOptional ? 4 : 3)) {
+            case 0:
+                return "list<" + type(references, nesting - 1, true) + ">";
+            case 1:
+                return "set<" + type(references, nesting - 1, true) + ">";
+            case 2:
+                return "map<" + pick(MAP_KEYS) + ", " + type(references, nesting - 1, true) + ">";
+            default:
+                return "optional<" + type(references, nesting - 1, false) + ">";
+        }
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String fileName(int fileIndex) {
+        return "f" + fileIndex + ".yml";
+    }
+}
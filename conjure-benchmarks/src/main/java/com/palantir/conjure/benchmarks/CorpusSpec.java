@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.google.common.base.Preconditions;
+import com.palantir.conjure.defs.ConjureImmutablesStyle;
+import org.immutables.value.Value;
+
+/** The shape of a synthetic corpus of Conjure definitions written by {@link CorpusGenerator}. */
+@Value.Immutable
+@ConjureImmutablesStyle
+public interface CorpusSpec {
+
+    /** The seed from which all random choices derive, such that equal specs yield byte-identical corpora. */
+    @Value.Default
+    default long seed() {
+        return 0;
+    }
+
+    @Value.Default
+    default int files() {
+        return 10;
+    }
+
+    @Value.Default
+    default int objectsPerFile() {
+        return 20;
+    }
+
+    @Value.Default
+    default int fieldsPerObject() {
+        return 5;
+    }
+
+    @Value.Default
+    default int unionsPerFile() {
+        return 5;
+    }
+
+    @Value.Default
+    default int enumsPerFile() {
+        return 5;
+    }
+
+    /** The number of aliases per file, declared in chains of {@link #aliasChainLength} aliases of one another. */
+    @Value.Default
+    default int aliasesPerFile() {
+        return 10;
+    }
+
+    @Value.Default
+    default int aliasChainLength() {
+        return 3;
+    }
+
+    @Value.Default
+    default int errorsPerFile() {
+        return 3;
+    }
+
+    @Value.Default
+    default int servicesPerFile() {
+        return 1;
+    }
+
+    @Value.Default
+    default int endpointsPerService() {
+        return 10;
+    }
+
+    /** The number of files each file imports from the layer of files below it. */
+    @Value.Default
+    default int importFanOut() {
+        return 2;
+    }
+
+    /** The length of the longest chain of imports, i.e., the number of layers of files above the bottom one. */
+    @Value.Default
+    default int importDepth() {
+        return 3;
+    }
+
+    /** The maximum number of containers, e.g., {@code list} or {@code optional}, nested in a single type. */
+    @Value.Default
+    default int containerNesting() {
+        return 2;
+    }
+
+    @Value.Check
+    default void check() {
+        Preconditions.checkArgument(files() > 0, "files must be positive: %s", files());
+        Preconditions.checkArgument(aliasChainLength() > 0,
+                "aliasChainLength must be positive: %s", aliasChainLength());
+        Preconditions.checkArgument(objectsPerFile() >= 0 && fieldsPerObject() >= 0 && unionsPerFile() >= 0
+                        && enumsPerFile() >= 0 && aliasesPerFile() >= 0 && errorsPerFile() >= 0
+                        && servicesPerFile() >= 0 && endpointsPerService() >= 0 && importFanOut() >= 0
+                        && importDepth() >= 0 && containerNesting() >= 0,
+                "counts must not be negative: %s", this);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableCorpusSpec.Builder {}
+}
@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import picocli.CommandLine;
+
+@CommandLine.Command(
+        name = "generate-corpus",
+        description = "Write a synthetic corpus of valid Conjure YML definitions to a directory.",
+        mixinStandardHelpOptions = true,
+        usageHelpWidth = 120)
+public final class GenerateCorpusCommand implements Runnable {
+    private static final CorpusSpec DEFAULTS = CorpusSpec.builder().build();
+
+    @CommandLine.Parameters(paramLabel = "<output>",
+            description = "Directory to write the definitions to, which is created if it does not exist.",
+            index = "0")
+    private File output;
+
+    @CommandLine.Option(names = "--seed", description = "Seed of all random choices.")
+    private long seed = DEFAULTS.seed();
+
+    @CommandLine.Option(names = "--files")
+    private int files = DEFAULTS.files();
+
+    @CommandLine.Option(names = "--objects", description = "Objects per file.")
+    private int objects = DEFAULTS.objectsPerFile();
+
+    @CommandLine.Option(names = "--fields", description = "Fields per object.")
+    private int fields = DEFAULTS.fieldsPerObject();
+
+    @CommandLine.Option(names = "--unions", description = "Unions per file.")
+    private int unions = DEFAULTS.unionsPerFile();
+
+    @CommandLine.Option(names = "--enums", description = "Enums per file.")
+    private int enums = DEFAULTS.enumsPerFile();
+
+    @CommandLine.Option(names = "--aliases", description = "Aliases per file.")
+    private int aliases = DEFAULTS.aliasesPerFile();
+
+    @CommandLine.Option(names = "--alias-chain-length", description = "Length of each chain of aliases of aliases.")
+    private int aliasChainLength = DEFAULTS.aliasChainLength();
+
+    @CommandLine.Option(names = "--errors", description = "Errors per file.")
+    private int errors = DEFAULTS.errorsPerFile();
+
+    @CommandLine.Option(names = "--services", description = "Services per file.")
+    private int services = DEFAULTS.servicesPerFile();
+
+    @CommandLine.Option(names = "--endpoints", description = "Endpoints per service.")
+    private int endpoints = DEFAULTS.endpointsPerService();
+
+    @CommandLine.Option(names = "--import-fan-out", description = "Files imported by each file above the bottom layer.")
+    private int importFanOut = DEFAULTS.importFanOut();
+
+    @CommandLine.Option(names = "--import-depth", description = "Length of the longest chain of imports.")
+    private int importDepth = DEFAULTS.importDepth();
+
+    @CommandLine.Option(names = "--container-nesting", description = "Maximum number of nested containers per type.")
+    private int containerNesting = DEFAULTS.containerNesting();
+
+    public static void main(String[] args) {
+        CommandLine.run(new GenerateCorpusCommand(), args);
+    }
+
+    @Override
+    public void run() {
+        CorpusSpec spec = CorpusSpec.builder()
+                .seed(seed)
+                .files(files)
+                .objectsPerFile(objects)
+                .fieldsPerObject(fields)
+                .unionsPerFile(unions)
+                .enumsPerFile(enums)
+                .aliasesPerFile(aliases)
+                .aliasChainLength(aliasChainLength)
+                .errorsPerFile(errors)
+                .servicesPerFile(services)
+                .endpointsPerService(endpoints)
+                .importFanOut(importFanOut)
+                .importDepth(importDepth)
+                .containerNesting(containerNesting)
+                .build();
+        try {
+            Path dir = Files.createDirectories(output.toPath());
+            CorpusGenerator.generate(spec, dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write corpus to " + output, e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link ConjureDefinitionValidator#NO_RECURSIVE_TYPES} scales with the number of types, using a
+ * synthetic acyclic definition in which every object references the next two objects through direct fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoRecursiveTypesBenchmark {
+    private static final String PACKAGE = "com.palantir.conjure.benchmarks";
+    private static final Documentation DOCS = Documentation.of("docs");
+
+    @Param({"1000", "10000", "100000"})
+    public int numTypes;
+
+    private ConjureDefinition definition;
+
+    @Setup
+    public void setup() {
+        ConjureDefinition.Builder builder = ConjureDefinition.builder().version(1);
+        for (int i = 0; i < numTypes; i++) {
+            ObjectDefinition.Builder object = ObjectDefinition.builder().typeName(typeName(i));
+            for (int next = i + 1; next <= i + 2 && next < numTypes; next++) {
+                object.fields(FieldDefinition.of(
+                        FieldName.of("field" + next), Type.reference(typeName(next)), DOCS));
+            }
+            builder.types(TypeDefinition.object(object.build()));
+        }
+        definition = builder.build();
+    }
+
+    @Benchmark
+    public void validate() {
+        ConjureDefinitionValidator.NO_RECURSIVE_TYPES.validate(definition);
+    }
+
+    private static TypeName typeName(int index) {
+        return TypeName.of("Type" + index, PACKAGE);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.codahale.metrics.SharedMetricRegistries;
+import com.palantir.conjure.parser.types.ConjureType;
+import com.palantir.conjure.parser.types.TypeParser;
+import com.palantir.parsec.ParseException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the single-pass {@link TypeParser} against the combinator-based {@link LegacyTypeParser}, with and without
+ * a default shared metric registry to record parser metrics in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeParserBenchmark {
+
+    @Param({
+            "string",
+            "Foo",
+            "bar.Foo",
+            "list<Foo>",
+            "optional<set<datetime>>",
+            "map<string, optional<list<bar.Foo>>>"})
+    public String type;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    @Setup
+    public void setUp() {
+        // each trial runs in a fresh fork, and a default registry cannot be unset once set
+        if (metrics && SharedMetricRegistries.tryGetDefault() == null) {
+            SharedMetricRegistries.setDefault("conjure-benchmarks");
+        }
+    }
+
+    @Benchmark
+    public ConjureType singlePass() throws ParseException {
+        return TypeParser.INSTANCE.parse(type);
+    }
+
+    @Benchmark
+    public ConjureType combinators() throws ParseException {
+        return LegacyTypeParser.INSTANCE.parse(type);
+    }
+}
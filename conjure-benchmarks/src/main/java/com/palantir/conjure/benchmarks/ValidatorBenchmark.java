@@ -0,0 +1,168 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
+import com.palantir.conjure.defs.validator.EndpointDefinitionValidator;
+import com.palantir.conjure.defs.validator.EnumDefinitionValidator;
+import com.palantir.conjure.defs.validator.ErrorDefinitionValidator;
+import com.palantir.conjure.defs.validator.FieldNameValidator;
+import com.palantir.conjure.defs.validator.ObjectDefinitionValidator;
+import com.palantir.conjure.defs.validator.PackageValidator;
+import com.palantir.conjure.defs.validator.ServiceDefinitionValidator;
+import com.palantir.conjure.defs.validator.TypeNameValidator;
+import com.palantir.conjure.defs.validator.UnionDefinitionValidator;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.spec.UnionDefinition;
+import com.palantir.conjure.visitor.DealiasingTypeVisitor;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each family of validators over all the elements it applies to in a {@link BenchmarkInputs.Size#MEDIUM
+ * medium} definition, e.g., {@link ObjectDefinitionValidator} over all objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private ConjureDefinition definition;
+    private DealiasingTypeVisitor dealiasingVisitor;
+    private List<ObjectDefinition> objects;
+    private List<EnumDefinition> enums;
+    private List<UnionDefinition> unions;
+    private List<TypeName> typeNames;
+    private List<FieldDefinition> fields;
+    private List<ErrorDefinition> errors;
+    private List<ServiceDefinition> services;
+    private List<EndpointDefinition> endpoints;
+
+    @Setup
+    public void setup() {
+        Path dir = BenchmarkInputs.createTempDirectory();
+        try {
+            BenchmarkInputs.Size size = BenchmarkInputs.Size.MEDIUM;
+            definition = Conjure.parse(Collections.singletonList(BenchmarkInputs.writeDefinition(
+                    dir, 0, size.numTypes(), size.numEndpoints(), Collections.emptyList()).toFile()));
+        } finally {
+            BenchmarkInputs.deleteRecursively(dir);
+        }
+
+        Map<TypeName, TypeDefinition> types = definition.getTypes().stream()
+                .collect(Collectors.toMap(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME), Function.identity()));
+        dealiasingVisitor = new DealiasingTypeVisitor(types);
+        objects = new ArrayList<>();
+        enums = new ArrayList<>();
+        unions = new ArrayList<>();
+        definition.getTypes().forEach(type -> {
+            if (type.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+                objects.add(type.accept(TypeDefinitionVisitor.OBJECT));
+            } else if (type.accept(TypeDefinitionVisitor.IS_ENUM)) {
+                enums.add(type.accept(TypeDefinitionVisitor.ENUM));
+            } else if (type.accept(TypeDefinitionVisitor.IS_UNION)) {
+                unions.add(type.accept(TypeDefinitionVisitor.UNION));
+            }
+        });
+        typeNames = new ArrayList<>(types.keySet());
+        fields = objects.stream().flatMap(object -> object.getFields().stream()).collect(Collectors.toList());
+        errors = definition.getErrors();
+        services = definition.getServices();
+        endpoints = services.stream()
+                .flatMap(service -> service.getEndpoints().stream())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void conjureDefinition() {
+        ConjureDefinitionValidator.validateAll(definition);
+    }
+
+    @Benchmark
+    public void objects() {
+        objects.forEach(ObjectDefinitionValidator::validate);
+    }
+
+    @Benchmark
+    public void enums() {
+        enums.forEach(EnumDefinitionValidator::validateAll);
+    }
+
+    @Benchmark
+    public void unions() {
+        unions.forEach(UnionDefinitionValidator::validateAll);
+    }
+
+    @Benchmark
+    public void typeNames() {
+        typeNames.forEach(TypeNameValidator::validate);
+    }
+
+    @Benchmark
+    public void packages() {
+        typeNames.forEach(typeName -> PackageValidator.validate(typeName.getPackage()));
+    }
+
+    @Benchmark
+    public void fieldNames() {
+        fields.forEach(field -> FieldNameValidator.validate(field.getFieldName()));
+    }
+
+    @Benchmark
+    public void errors() {
+        errors.forEach(ErrorDefinitionValidator::validate);
+    }
+
+    @Benchmark
+    public void services() {
+        services.forEach(ServiceDefinitionValidator::validateAll);
+    }
+
+    @Benchmark
+    public void endpoints() {
+        endpoints.forEach(endpoint -> EndpointDefinitionValidator.validateAll(endpoint, dealiasingVisitor));
+    }
+}
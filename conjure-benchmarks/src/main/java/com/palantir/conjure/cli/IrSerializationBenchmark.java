@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.io.ByteStreams;
+import com.palantir.conjure.benchmarks.BenchmarkInputs;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serializing the IR of a generated definition with {@link ConjureCli#OBJECT_MAPPER} the way the compile
+ * command does, pretty-printed by default and without whitespace for {@code --compact}. Both write to a stream that
+ * discards its input, so as to exclude disk I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IrSerializationBenchmark {
+
+    @Param({"MEDIUM", "HUGE"})
+    public BenchmarkInputs.Size size;
+
+    private ConjureDefinition definition;
+
+    @Setup
+    public void setup() {
+        Path dir = BenchmarkInputs.createTempDirectory();
+        try {
+            definition = Conjure.parse(Collections.singletonList(BenchmarkInputs.writeDefinition(
+                    dir, 0, size.numTypes(), size.numEndpoints(), Collections.emptyList()).toFile()));
+        } finally {
+            BenchmarkInputs.deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public void prettyPrinted() throws IOException {
+        ConjureCli.OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
+                .writeValue(ByteStreams.nullOutputStream(), definition);
+    }
+
+    @Benchmark
+    public void compact() throws IOException {
+        ConjureCli.OBJECT_MAPPER.writer().writeValue(ByteStreams.nullOutputStream(), definition);
+    }
+}
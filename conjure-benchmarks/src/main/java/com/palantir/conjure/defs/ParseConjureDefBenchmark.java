@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.palantir.conjure.benchmarks.BenchmarkInputs;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures translating and validating parsed definitions with {@link ConjureParserUtils#parseConjureDef}, for a wide
+ * import graph, in which the first file imports all others, and a deep one, in which each file imports its
+ * predecessor. Lives in the package of {@link ConjureParserUtils} to call it without parsing the YAML again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseConjureDefBenchmark {
+    private static final int NUM_FILES = 100;
+    private static final int TYPES_PER_FILE = 40;
+    private static final int ENDPOINTS_PER_FILE = 5;
+
+    public enum ImportGraph {
+        WIDE,
+        DEEP
+    }
+
+    @Param({"WIDE", "DEEP"})
+    public ImportGraph graph;
+
+    private Path dir;
+    private List<ConjureSourceFile> parsed;
+
+    @Setup
+    public void setup() {
+        dir = BenchmarkInputs.createTempDirectory();
+        List<File> files = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (int i = 1; i < NUM_FILES; i++) {
+            List<String> imports = graph == ImportGraph.DEEP && i > 1
+                    ? Collections.singletonList("f" + (i - 1) + ".yml")
+                    : Collections.emptyList();
+            files.add(BenchmarkInputs.writeDefinition(dir, i, TYPES_PER_FILE, ENDPOINTS_PER_FILE, imports).toFile());
+            others.add("f" + i + ".yml");
+        }
+        List<String> rootImports = graph == ImportGraph.WIDE
+                ? others
+                : Collections.singletonList("f" + (NUM_FILES - 1) + ".yml");
+        files.add(BenchmarkInputs.writeDefinition(dir, 0, TYPES_PER_FILE, ENDPOINTS_PER_FILE, rootImports).toFile());
+        parsed = ConjureParser.parse(files);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkInputs.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public ConjureDefinition parseConjureDef() {
+        return ConjureParserUtils.parseConjureDef(parsed);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CorpusGeneratorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGeneratesValidCorpus() throws IOException {
+        CorpusSpec spec = CorpusSpec.builder().build();
+        ConjureDefinition definition = compile(CorpusGenerator.generate(spec, folder.newFolder().toPath()));
+
+        int typesPerFile =
+                spec.objectsPerFile() + spec.unionsPerFile() + spec.enumsPerFile() + spec.aliasesPerFile();
+        assertThat(definition.getTypes()).hasSize(spec.files() * typesPerFile);
+        assertThat(definition.getErrors()).hasSize(spec.files() * spec.errorsPerFile());
+        assertThat(definition.getServices()).hasSize(spec.files() * spec.servicesPerFile());
+        assertThat(definition.getServices().get(0).getEndpoints()).hasSize(spec.endpointsPerService());
+    }
+
+    @Test
+    public void testGeneratesValidCorpusForManySeedsAndShapes() throws IOException {
+        for (long seed = 0; seed < 20; seed++) {
+            CorpusSpec spec = CorpusSpec.builder()
+                    .seed(seed)
+                    .files(1 + (int) seed % 7)
+                    .importFanOut((int) seed % 4)
+                    .importDepth((int) seed % 5)
+                    .aliasChainLength(1 + (int) seed % 4)
+                    .containerNesting((int) seed % 4)
+                    .fieldsPerObject((int) seed % 3)
+                    .build();
+            compile(CorpusGenerator.generate(spec, folder.newFolder().toPath()));
+        }
+    }
+
+    @Test
+    public void testIsDeterministicInSeed() throws IOException {
+        CorpusSpec spec = CorpusSpec.builder().seed(42).build();
+        List<Path> first = CorpusGenerator.generate(spec, folder.newFolder().toPath());
+        List<Path> second = CorpusGenerator.generate(spec, folder.newFolder().toPath());
+        List<Path> otherSeed = CorpusGenerator.generate(
+                CorpusSpec.builder().from(spec).seed(43).build(), folder.newFolder().toPath());
+
+        assertThat(contents(second)).isEqualTo(contents(first));
+        assertThat(contents(otherSeed)).isNotEqualTo(contents(first));
+    }
+
+    private static ConjureDefinition compile(List<Path> files) {
+        return Conjure.parse(files.stream().map(Path::toFile).collect(Collectors.toList()));
+    }
+
+    private static List<String> contents(List<Path> files) throws IOException {
+        List<String> contents = new ArrayList<>();
+        for (Path file : files) {
+            contents.add(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+        return contents;
+    }
+}
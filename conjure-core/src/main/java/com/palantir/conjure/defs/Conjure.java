@@ -16,11 +16,14 @@
 
 package com.palantir.conjure.defs;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ParseCache;
 import com.palantir.conjure.spec.ConjureDefinition;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 public final class Conjure {
     public static final Integer SUPPORTED_IR_VERSION = 1;
@@ -28,10 +31,55 @@ public final class Conjure {
     private Conjure() {}
 
     /**
-     * Deserializes {@link ConjureDefinition} from their YAML representations in the given files.
+     * Deserializes {@link ConjureDefinition} from their YAML representations in the given files. Files imported by
+     * several of the given files are only read once.
      */
     public static ConjureDefinition parse(Collection<File> files) {
-        return ConjureParserUtils.parseConjureDef(
-                files.stream().map(ConjureParser::parse).collect(Collectors.toList()));
+        return ConjureParserUtils.parseConjureDef(ConjureParser.parse(files));
+    }
+
+    /**
+     * Like {@link #parse(Collection)}, but reads and translates the given files in parallel on the given executor,
+     * e.g., {@link java.util.concurrent.ForkJoinPool#commonPool}. The result is identical to that of a sequential
+     * parse of the same files.
+     */
+    public static ConjureDefinition parse(Collection<File> files, ExecutorService executor) {
+        return ConjureParserUtils.parseConjureDef(ConjureParser.parse(files, executor), executor);
+    }
+
+    /**
+     * Like {@link #parse(Collection)}, but reuses the parsed files retained by the given cache, see {@link
+     * ParseCache}.
+     */
+    public static ConjureDefinition parse(Collection<File> files, ParseCache parseCache) {
+        return ConjureParserUtils.parseConjureDef(ConjureParser.parse(files, parseCache));
+    }
+
+    /**
+     * Like {@link #parse(Collection, ParseCache)}, but also reuses the translations retained by the given cache, see
+     * {@link TranslationCache}.
+     */
+    public static ConjureDefinition parse(
+            Collection<File> files, ParseCache parseCache, TranslationCache translationCache) {
+        return ConjureParserUtils.mergeFragments(ConjureParserUtils.parseFragments(
+                ConjureParser.parse(files, parseCache), MoreExecutors.newDirectExecutorService(), translationCache));
+    }
+
+    /**
+     * Like {@link #parse(Collection)}, but caches the translation of each file in the given directory, and only
+     * parses and translates the files whose content or transitively imported content changed since the previous
+     * call with the same directory.
+     */
+    public static ConjureDefinition parse(Collection<File> files, Path cacheDir) {
+        return IncrementalCompiler.compile(files, cacheDir);
+    }
+
+    /**
+     * Like {@link #parse(Collection, Path)}, but parses and translates the files that are not up to date in the given
+     * directory through the given caches, see {@link #parse(Collection, ParseCache, TranslationCache)}.
+     */
+    public static ConjureDefinition parse(
+            Collection<File> files, Path cacheDir, ParseCache parseCache, TranslationCache translationCache) {
+        return IncrementalCompiler.compile(files, cacheDir, parseCache, translationCache);
     }
 }
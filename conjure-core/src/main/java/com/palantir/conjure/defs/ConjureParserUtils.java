@@ -18,6 +18,8 @@ package com.palantir.conjure.defs;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.conjure.ConjureDefinitionIndex;
 import com.palantir.conjure.defs.ConjureTypeParserVisitor.ReferenceTypeResolver;
 import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
 import com.palantir.conjure.defs.validator.EndpointDefinitionValidator;
@@ -32,13 +34,13 @@ import com.palantir.conjure.defs.validator.PackageValidator;
 import com.palantir.conjure.defs.validator.ServiceDefinitionValidator;
 import com.palantir.conjure.defs.validator.TypeNameValidator;
 import com.palantir.conjure.defs.validator.UnionDefinitionValidator;
+import com.palantir.conjure.parser.CompileContext;
+import com.palantir.conjure.parser.CompileTrace;
 import com.palantir.conjure.parser.ConjureSourceFile;
 import com.palantir.conjure.parser.services.ParameterName;
 import com.palantir.conjure.parser.services.PathString;
 import com.palantir.conjure.parser.types.NamedTypesDefinition;
 import com.palantir.conjure.parser.types.names.ConjurePackage;
-import com.palantir.conjure.parser.types.names.Namespace;
-import com.palantir.conjure.parser.types.reference.ConjureImports;
 import com.palantir.conjure.spec.AliasDefinition;
 import com.palantir.conjure.spec.ArgumentDefinition;
 import com.palantir.conjure.spec.ArgumentName;
@@ -78,6 +80,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -190,33 +194,40 @@ public final class ConjureParserUtils {
     }
 
     static ConjureDefinition parseConjureDef(Collection<ConjureSourceFile> parsedDefs) {
+        return parseConjureDef(parsedDefs, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Like {@link #parseConjureDef(Collection)}, but translates each of the given files in a separate task on the
+     * given executor. Types, errors and services appear in the order of the given files, exactly as for a sequential
+     * parse.
+     */
+    static ConjureDefinition parseConjureDef(Collection<ConjureSourceFile> parsedDefs, ExecutorService executor) {
+        return mergeFragments(parseFragments(parsedDefs, executor, new TranslationCache()));
+    }
+
+    /**
+     * Translates each of the given files in a separate task on the given executor into an unvalidated definition
+     * holding only the entities declared in it, and returns these fragments in the order of the given files. Files
+     * already translated by the given cache are not translated again.
+     */
+    static List<ConjureDefinition> parseFragments(
+            Collection<ConjureSourceFile> parsedDefs, ExecutorService executor, TranslationCache translationCache) {
+        List<Future<ConjureDefinition>> futures = parsedDefs.stream()
+                .map(parsed -> executor.submit(CompileContext.propagate(() -> translationCache.fragment(parsed))))
+                .collect(Collectors.toList());
+        return futures.stream().map(CompileContext::getUnchecked).collect(Collectors.toList());
+    }
+
+    /** Concatenates the types, errors and services of the given fragments, in order, and validates the result. */
+    static ConjureDefinition mergeFragments(List<ConjureDefinition> fragments) {
         ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
         ImmutableList.Builder<ErrorDefinition> errorsBuilder = ImmutableList.builder();
         ImmutableList.Builder<TypeDefinition> typesBuilder = ImmutableList.builder();
-
-        parsedDefs.forEach(parsed -> {
-            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver =
-                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(parsed.types());
-
-            // Resolve objects first, so we can use them in service validations
-            Map<TypeName, TypeDefinition> objects = parseObjects(parsed.types(), typeResolver);
-            Map<TypeName, TypeDefinition> importedObjects = parseImportObjects(parsed.types().conjureImports());
-            Map<TypeName, TypeDefinition> allObjects = Maps.newHashMap();
-            allObjects.putAll(objects);
-            allObjects.putAll(importedObjects);
-
-            DealiasingTypeVisitor dealiasingVisitor = new DealiasingTypeVisitor(allObjects);
-
-            parsed.services().forEach((serviceName, service) -> {
-                servicesBuilder.add(parseService(
-                        service,
-                        TypeName.of(serviceName.name(), parseConjurePackage(service.conjurePackage())),
-                        typeResolver,
-                        dealiasingVisitor));
-            });
-
-            typesBuilder.addAll(objects.values());
-            errorsBuilder.addAll(parseErrors(parsed.types().definitions(), typeResolver));
+        fragments.forEach(fragment -> {
+            servicesBuilder.addAll(fragment.getServices());
+            typesBuilder.addAll(fragment.getTypes());
+            errorsBuilder.addAll(fragment.getErrors());
         });
 
         ConjureDefinition definition = ConjureDefinition.builder()
@@ -226,24 +237,53 @@ public final class ConjureParserUtils {
                 .services(servicesBuilder.build())
                 .build();
 
-        ConjureDefinitionValidator.validateAll(definition);
+        // the index only builds the tables that the validators look up
+        ConjureDefinitionValidator.validateAll(ConjureDefinitionIndex.of(definition));
         return definition;
     }
 
-    /*
-     * Recursively resolve all imported types
-     */
-    private static Map<TypeName, TypeDefinition> parseImportObjects(Map<Namespace, ConjureImports> conjureImports) {
-        Map<TypeName, TypeDefinition> allDefinitions = Maps.newHashMap();
-        conjureImports.values().forEach(conjureImport -> {
-            ConjureSourceFile conjureDef = conjureImport.conjure();
-            ReferenceTypeResolver importTypeResolver =
-                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(conjureDef.types());
-            allDefinitions.putAll(parseImportObjects(conjureDef.types().conjureImports()));
-            allDefinitions.putAll(parseObjects(conjureDef.types(), importTypeResolver));
-        });
+    /** Translates the given file into an unvalidated definition holding only the entities declared in it. */
+    static ConjureDefinition parseSourceFile(ConjureSourceFile parsed, TranslationCache translationCache) {
+        ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver =
+                new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(parsed.types());
+
+        // Resolve objects first, so we can use them in service validations
+        Map<TypeName, TypeDefinition> objects = translationCache.localObjects(parsed);
+        // translating the imports also checks them, even if no service of this file reads them
+        Map<TypeName, TypeDefinition> importedObjects = translationCache.importedObjects(parsed);
+
+        return ConjureDefinition.builder()
+                .version(Conjure.SUPPORTED_IR_VERSION)
+                .types(objects.values())
+                .errors(parseErrors(parsed.types().definitions(), typeResolver))
+                .services(parseServices(parsed, objects, importedObjects, typeResolver))
+                .build();
+    }
+
+    private static List<ServiceDefinition> parseServices(
+            ConjureSourceFile parsed,
+            Map<TypeName, TypeDefinition> objects,
+            Map<TypeName, TypeDefinition> importedObjects,
+            ReferenceTypeResolver typeResolver) {
+        if (parsed.services().isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        // only services dealias references, which may name local or imported types
+        Map<TypeName, TypeDefinition> allObjects = Maps.newHashMap();
+        allObjects.putAll(objects);
+        allObjects.putAll(importedObjects);
+        DealiasingTypeVisitor dealiasingVisitor = new DealiasingTypeVisitor(allObjects);
 
-        return allDefinitions;
+        ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
+        parsed.services().forEach((serviceName, service) -> {
+            servicesBuilder.add(parseService(
+                    service,
+                    TypeName.of(serviceName.name(), parseConjurePackage(service.conjurePackage())),
+                    typeResolver,
+                    dealiasingVisitor));
+        });
+        return servicesBuilder.build();
     }
 
     static ServiceDefinition parseService(
@@ -251,23 +291,25 @@ public final class ConjureParserUtils {
             TypeName serviceName,
             ReferenceTypeResolver typeResolver,
             DealiasingTypeVisitor dealiasingVisitor) {
-        List<EndpointDefinition> endpoints = new ArrayList<>();
-        parsed.endpoints().forEach((name, def) -> endpoints.add(
-                ConjureParserUtils.parseEndpoint(
-                        name,
-                        def,
-                        parsed.basePath(),
-                        parseAuthType(parsed.defaultAuth()),
-                        typeResolver,
-                        dealiasingVisitor)));
-        ServiceDefinition service = ServiceDefinition.builder()
-                .serviceName(serviceName)
-                .docs(parsed.docs().map(Documentation::of))
-                .addAllEndpoints(endpoints)
-                .build();
-
-        ServiceDefinitionValidator.validateAll(service);
-        return service;
+        try (CompileTrace.Span span = CompileTrace.span("parseService", "service", serviceName.getName())) {
+            List<EndpointDefinition> endpoints = new ArrayList<>();
+            parsed.endpoints().forEach((name, def) -> endpoints.add(
+                    ConjureParserUtils.parseEndpoint(
+                            name,
+                            def,
+                            parsed.basePath(),
+                            parseAuthType(parsed.defaultAuth()),
+                            typeResolver,
+                            dealiasingVisitor)));
+            ServiceDefinition service = ServiceDefinition.builder()
+                    .serviceName(serviceName)
+                    .docs(parsed.docs().map(Documentation::of))
+                    .addAllEndpoints(endpoints)
+                    .build();
+
+            ServiceDefinitionValidator.validateAll(service);
+            return service;
+        }
     }
 
     static Map<TypeName, TypeDefinition> parseObjects(
@@ -278,10 +320,17 @@ public final class ConjureParserUtils {
 
         // no need to use validator here since TypeDefinitionParserVisitor calls each TypeDefinition parser that
         // validates its type.
-        return parsed.definitions().objects().entrySet().stream()
-                        .map(entry -> entry.getValue().visit(
-                                new TypeDefinitionParserVisitor(entry.getKey().name(), defaultPackage, typeResolver)))
-                        .collect(Collectors.toMap(td -> td.accept(TypeDefinitionVisitor.TYPE_NAME), td -> td));
+        try (CompileTrace.Span span = CompileTrace.span("parseObjects", "package", defaultPackage.orElse(""))) {
+            return parsed.definitions().objects().entrySet().stream()
+                    .map(entry -> {
+                        String name = entry.getKey().name();
+                        try (CompileTrace.Span typeSpan = CompileTrace.span("parseType", "type", name)) {
+                            return entry.getValue().visit(
+                                    new TypeDefinitionParserVisitor(name, defaultPackage, typeResolver));
+                        }
+                    })
+                    .collect(Collectors.toMap(td -> td.accept(TypeDefinitionVisitor.TYPE_NAME), td -> td));
+        }
     }
 
     static List<ErrorDefinition> parseErrors(
@@ -382,11 +431,12 @@ public final class ConjureParserUtils {
             HttpPath httpPath,
             ReferenceTypeResolver typeResolver) {
         ImmutableList.Builder<ArgumentDefinition> resultBuilder = ImmutableList.builder();
+        Set<ArgumentName> pathArgs = HttpPathValidator.pathArgs(httpPath.get());
         for (Map.Entry<com.palantir.conjure.parser.services.ParameterName,
                 com.palantir.conjure.parser.services.ArgumentDefinition> entry : args.entrySet()) {
             com.palantir.conjure.parser.services.ArgumentDefinition original = entry.getValue();
             ArgumentName argName = ArgumentName.of(entry.getKey().name());
-            ParameterType paramType = parseParameterType(original, argName, httpPath);
+            ParameterType paramType = parseParameterType(original, argName, pathArgs);
             ArgumentDefinition.Builder builder = ArgumentDefinition.builder()
                     .argName(argName)
                     .type(original.type().visit(new ConjureTypeParserVisitor(typeResolver)))
@@ -401,13 +451,12 @@ public final class ConjureParserUtils {
     private static ParameterType parseParameterType(
             com.palantir.conjure.parser.services.ArgumentDefinition argumentDef,
             ArgumentName argName,
-            HttpPath httpPath) {
+            Set<ArgumentName> pathArgs) {
 
-        Set<ArgumentName> args = HttpPathValidator.pathArgs(httpPath.get());
         switch (argumentDef.paramType()) {
             case AUTO:
                 // AUTO type
-                if (args.contains(argName)) {
+                if (pathArgs.contains(argName)) {
                     // argument exists in request line -- it is a path arg
                     return ParameterType.path(PathParameterType.of());
                 } else {
@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.palantir.conjure.CaseConverter;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Identifies the code of this build of the compiler, such that state that one build persists or serves, e.g., cached
+ * translations or a resident daemon, is only reused by the same build. Released builds are identified by their
+ * version; builds from a modified working tree or without a version, e.g., when running from class directories, by a
+ * hash of their classes.
+ */
+public final class ConjureVersion {
+    private static final String DIRTY_SUFFIX = ".dirty";
+    private static final Supplier<Optional<String>> CURRENT = Suppliers.memoize(ConjureVersion::compute);
+
+    private ConjureVersion() {}
+
+    /** The identifier of this build, or empty if neither its version nor its classes can be determined. */
+    public static Optional<String> current() {
+        return CURRENT.get();
+    }
+
+    private static Optional<String> compute() {
+        String version = Conjure.class.getPackage().getImplementationVersion();
+        if (version != null && !version.endsWith(DIRTY_SUFFIX)) {
+            return Optional.of(version);
+        }
+        // the compiler's classes span this module, the generator utilities and the IR objects
+        Set<Path> locations = new LinkedHashSet<>();
+        for (Class<?> clazz : new Class<?>[] {Conjure.class, CaseConverter.class, ConjureDefinition.class}) {
+            CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return Optional.empty();
+            }
+            try {
+                locations.add(Paths.get(codeSource.getLocation().toURI()));
+            } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+                return Optional.empty();
+            }
+        }
+        Hasher hasher = Hashing.sha256().newHasher();
+        try {
+            for (Path location : locations) {
+                hash(location, hasher);
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        return Optional.of((version != null ? version : "dev") + "-" + hasher.hash());
+    }
+
+    private static void hash(Path location, Hasher hasher) throws IOException {
+        if (!Files.isDirectory(location)) {
+            hasher.putBytes(Files.readAllBytes(location));
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(location)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            hasher.putString(location.relativize(file).toString(), StandardCharsets.UTF_8);
+            hasher.putBytes(Files.readAllBytes(file));
+        }
+    }
+}
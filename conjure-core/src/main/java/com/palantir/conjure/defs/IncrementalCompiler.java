@@ -0,0 +1,282 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.conjure.parser.ConjureMetrics;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.immutables.value.Value;
+
+/**
+ * Compiles Conjure definitions against an on-disk cache holding the translation of each input file, i.e., the
+ * unvalidated {@link ConjureDefinition} of the entities it declares, along with a manifest of the content hashes of
+ * each input file and of its transitive imports. Only input files whose own content or transitively imported content
+ * changed since they were cached are parsed and translated again; the cached translations of all other files are
+ * merged with them before validation.
+ * <p>
+ * Files in the cache are replaced atomically, and each cached translation is keyed by the content hashes it was
+ * translated from, so a crashed or concurrent compilation can at worst cause cache misses. The cache is only used by
+ * the {@link ConjureVersion build} that wrote it, and not at all by builds that cannot be identified.
+ */
+final class IncrementalCompiler {
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String FRAGMENTS_DIR = "fragments";
+    private static final ConjureMetrics.Counter HITS = ConjureMetrics.counter(IncrementalCompiler.class, "hit");
+    private static final ConjureMetrics.Counter MISSES =
+            ConjureMetrics.counter(IncrementalCompiler.class, "miss");
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+
+    private final Path cacheDir;
+    private final String compilerVersion;
+    private final ParseCache parseCache;
+    private final TranslationCache translationCache;
+    private final Map<Path, String> hashes = new HashMap<>();
+
+    private IncrementalCompiler(
+            Path cacheDir, String compilerVersion, ParseCache parseCache, TranslationCache translationCache) {
+        this.cacheDir = cacheDir;
+        this.compilerVersion = compilerVersion;
+        this.parseCache = parseCache;
+        this.translationCache = translationCache;
+    }
+
+    static ConjureDefinition compile(Collection<File> files, Path cacheDir) {
+        return compile(files, cacheDir, new ParseCache(), new TranslationCache());
+    }
+
+    /** Like {@link #compile(Collection, Path)}, but parses and translates stale files through the given caches. */
+    static ConjureDefinition compile(
+            Collection<File> files, Path cacheDir, ParseCache parseCache, TranslationCache translationCache) {
+        // cached translations from other builds of conjure may be stale
+        Optional<String> compilerVersion = ConjureVersion.current();
+        if (!compilerVersion.isPresent()) {
+            return Conjure.parse(files, parseCache, translationCache);
+        }
+        return new IncrementalCompiler(cacheDir, compilerVersion.get(), parseCache, translationCache).compile(files);
+    }
+
+    private ConjureDefinition compile(Collection<File> files) {
+        Manifest manifest = readManifest();
+        Map<String, ManifestEntry> entries = new HashMap<>();
+        Map<File, ConjureDefinition> fragments = new HashMap<>();
+        List<File> staleFiles = new ArrayList<>();
+        for (File file : files) {
+            String path = canonicalPath(file).toString();
+            Optional<ConjureDefinition> cached = Optional.ofNullable(manifest.files().get(path))
+                    .filter(entry -> isUpToDate(path, entry))
+                    .flatMap(entry -> readFragment(path, entry));
+            if (cached.isPresent()) {
+                HITS.inc();
+                entries.put(path, manifest.files().get(path));
+                fragments.put(file, cached.get());
+            } else {
+                MISSES.inc();
+                staleFiles.add(file);
+            }
+        }
+
+        // hash the stale files before reading them, such that a file saved in the meantime is stored under its
+        // previous hash and is hence translated again by the next compilation, rather than never again
+        Map<File, String> staleHashes = new HashMap<>();
+        staleFiles.forEach(file -> staleHashes.put(file, hash(canonicalPath(file))));
+        List<ConjureSourceFile> parsed = ConjureParser.parse(staleFiles, parseCache);
+        List<ConjureDefinition> staleFragments = ConjureParserUtils.parseFragments(
+                parsed, MoreExecutors.newDirectExecutorService(), translationCache);
+        for (int i = 0; i < staleFiles.size(); i++) {
+            File file = staleFiles.get(i);
+            String path = canonicalPath(file).toString();
+            Map<String, String> imports = new HashMap<>();
+            addImportClosure(file.toPath(), parsed.get(i), imports);
+            ManifestEntry entry = ImmutableManifestEntry.builder()
+                    .hash(staleHashes.get(file))
+                    .imports(imports)
+                    .build();
+            entries.put(path, entry);
+            fragments.put(file, staleFragments.get(i));
+            writeFragment(path, entry, staleFragments.get(i));
+            Optional.ofNullable(manifest.files().get(path))
+                    .filter(previous -> !previous.equals(entry))
+                    .ifPresent(previous -> deleteFragment(path, previous));
+        }
+        writeManifest(ImmutableManifest.builder().compilerVersion(compilerVersion).files(entries).build());
+
+        List<ConjureDefinition> orderedFragments = new ArrayList<>();
+        files.forEach(file -> orderedFragments.add(fragments.get(file)));
+        return ConjureParserUtils.mergeFragments(orderedFragments);
+    }
+
+    private boolean isUpToDate(String path, ManifestEntry entry) {
+        return entry.hash().equals(hash(Paths.get(path)))
+                && entry.imports().entrySet().stream()
+                        .allMatch(imported -> imported.getValue().equals(hash(Paths.get(imported.getKey()))));
+    }
+
+    private void addImportClosure(Path file, ConjureSourceFile parsed, Map<String, String> closure) {
+        for (ConjureImports conjureImport : parsed.types().conjureImports().values()) {
+            Path importedFile = file.resolveSibling(conjureImport.file());
+            Path canonicalPath = canonicalPath(importedFile.toFile());
+            if (!closure.containsKey(canonicalPath.toString())) {
+                closure.put(canonicalPath.toString(), hash(canonicalPath));
+                addImportClosure(importedFile, conjureImport.conjure(), closure);
+            }
+        }
+    }
+
+    /** Returns the SHA-256 of the given file's content, or the empty string if there is no such file. */
+    private String hash(Path path) {
+        String hash = hashes.get(path);
+        if (hash == null) {
+            try {
+                hash = Files.isRegularFile(path) ? Hashing.sha256().hashBytes(Files.readAllBytes(path)).toString() : "";
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read " + path, e);
+            }
+            hashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    private static Path canonicalPath(File file) {
+        try {
+            return file.exists() ? file.toPath().toRealPath() : file.toPath().toAbsolutePath().normalize();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to resolve canonical path of " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private Manifest readManifest() {
+        Path manifestFile = cacheDir.resolve(MANIFEST_FILE);
+        try {
+            if (Files.isRegularFile(manifestFile)) {
+                Manifest manifest = MAPPER.readValue(manifestFile.toFile(), Manifest.class);
+                if (manifest.compilerVersion().equals(compilerVersion)) {
+                    return manifest;
+                }
+            }
+        } catch (IOException e) {
+            // start over from an empty cache
+        }
+        return ImmutableManifest.builder().compilerVersion(compilerVersion).build();
+    }
+
+    private void writeManifest(Manifest manifest) {
+        try {
+            writeAtomically(cacheDir.resolve(MANIFEST_FILE), manifest);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write cache manifest to " + cacheDir, e);
+        }
+    }
+
+    private Optional<ConjureDefinition> readFragment(String path, ManifestEntry entry) {
+        try {
+            return Optional.of(MAPPER.readValue(fragmentFile(path, entry).toFile(), ConjureDefinition.class));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void writeFragment(String path, ManifestEntry entry, ConjureDefinition fragment) {
+        Path fragmentFile = fragmentFile(path, entry);
+        try {
+            writeAtomically(fragmentFile, fragment);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write cached translation of " + path + " to " + fragmentFile, e);
+        }
+    }
+
+    // a concurrent compilation that still reads the deleted translation merely translates the file again
+    private void deleteFragment(String path, ManifestEntry entry) {
+        try {
+            Files.deleteIfExists(fragmentFile(path, entry));
+        } catch (IOException e) {
+            // a stale translation is never read again, since its key no longer matches any manifest entry
+        }
+    }
+
+    /** Keys the translation of the given file by the hashes of its own and its transitively imported content. */
+    private Path fragmentFile(String path, ManifestEntry entry) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(path, StandardCharsets.UTF_8)
+                .putString(entry.hash(), StandardCharsets.UTF_8);
+        new TreeMap<>(entry.imports()).forEach((importedPath, importedHash) -> hasher
+                .putString(importedPath, StandardCharsets.UTF_8)
+                .putString(importedHash, StandardCharsets.UTF_8));
+        return cacheDir.resolve(FRAGMENTS_DIR).resolve(hasher.hash() + ".json");
+    }
+
+    /** Writes the given value to a file next to the given one and moves it into place, replacing any previous file. */
+    private static void writeAtomically(Path file, Object value) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_FILE_SUFFIX);
+        try {
+            MAPPER.writeValue(tempFile.toFile(), value);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Value.Immutable
+    @ConjureImmutablesStyle
+    @JsonSerialize(as = ImmutableManifest.class)
+    @JsonDeserialize(as = ImmutableManifest.class)
+    interface Manifest {
+        String compilerVersion();
+
+        /** The cache entries by canonical path of the input file. */
+        Map<String, ManifestEntry> files();
+    }
+
+    @Value.Immutable
+    @ConjureImmutablesStyle
+    @JsonSerialize(as = ImmutableManifestEntry.class)
+    @JsonDeserialize(as = ImmutableManifestEntry.class)
+    interface ManifestEntry {
+        String hash();
+
+        /** The hashes of all transitively imported files by canonical path. */
+        Map<String, String> imports();
+    }
+}
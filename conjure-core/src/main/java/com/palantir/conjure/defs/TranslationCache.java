@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.palantir.conjure.parser.ConjureMetrics;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Map;
+
+/**
+ * Memoizes the translation of each {@link ConjureSourceFile}, so that files reached through several import paths are
+ * translated once. Keys are compared by identity ({@link MapMaker#weakKeys}), which suffices since {@link
+ * com.palantir.conjure.parser.ConjureParser} shares the instance of a file between all files importing it, and is
+ * sound since a file's translation only depends on the file and its imports. A cache may hence outlive a single
+ * compilation, e.g., together with a {@link com.palantir.conjure.parser.ParseCache} that hands out the same instances
+ * for unchanged files. Safe for concurrent use; racing translations of the same file converge on the first stored
+ * result.
+ */
+public final class TranslationCache {
+    private static final ConjureMetrics.Counter FRAGMENT_HITS =
+            ConjureMetrics.counter(TranslationCache.class, "fragments", "hit");
+    private static final ConjureMetrics.Counter FRAGMENT_MISSES =
+            ConjureMetrics.counter(TranslationCache.class, "fragments", "miss");
+    private static final ConjureMetrics.Counter IMPORTED_TYPES_HITS =
+            ConjureMetrics.counter(ConjureParserUtils.class, "imported-types", "hit");
+    private static final ConjureMetrics.Counter IMPORTED_TYPES_MISSES =
+            ConjureMetrics.counter(ConjureParserUtils.class, "imported-types", "miss");
+
+    private final Map<ConjureSourceFile, Map<TypeName, TypeDefinition>> localObjects =
+            new MapMaker().weakKeys().makeMap();
+    private final Map<ConjureSourceFile, Map<TypeName, TypeDefinition>> importedObjects =
+            new MapMaker().weakKeys().makeMap();
+    private final Map<ConjureSourceFile, ConjureDefinition> fragments = new MapMaker().weakKeys().makeMap();
+
+    /** Returns the unvalidated definition of the entities declared in the given file. */
+    ConjureDefinition fragment(ConjureSourceFile parsed) {
+        ConjureDefinition result = fragments.get(parsed);
+        if (result != null) {
+            FRAGMENT_HITS.inc();
+            return result;
+        }
+
+        FRAGMENT_MISSES.inc();
+        result = ConjureParserUtils.parseSourceFile(parsed, this);
+        ConjureDefinition existing = fragments.putIfAbsent(parsed, result);
+        return existing != null ? existing : result;
+    }
+
+    /** Returns the types defined directly in the given file. */
+    Map<TypeName, TypeDefinition> localObjects(ConjureSourceFile parsed) {
+        Map<TypeName, TypeDefinition> result = localObjects.get(parsed);
+        if (result == null) {
+            result = ConjureParserUtils.parseObjects(parsed.types(),
+                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(parsed.types()));
+            Map<TypeName, TypeDefinition> existing = localObjects.putIfAbsent(parsed, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Recursively resolve all imported types
+     */
+    Map<TypeName, TypeDefinition> importedObjects(ConjureSourceFile parsed) {
+        // don't use computeIfAbsent since this recurses into the cache
+        Map<TypeName, TypeDefinition> result = importedObjects.get(parsed);
+        if (result != null) {
+            IMPORTED_TYPES_HITS.inc();
+            return result;
+        }
+
+        IMPORTED_TYPES_MISSES.inc();
+        Map<TypeName, TypeDefinition> allDefinitions = Maps.newHashMap();
+        parsed.types().conjureImports().values().forEach(conjureImport -> {
+            ConjureSourceFile conjureDef = conjureImport.conjure();
+            allDefinitions.putAll(importedObjects(conjureDef));
+            allDefinitions.putAll(localObjects(conjureDef));
+        });
+        Map<TypeName, TypeDefinition> existing = importedObjects.putIfAbsent(parsed, allDefinitions);
+        return existing != null ? existing : allDefinitions;
+    }
+}
@@ -19,10 +19,12 @@ package com.palantir.conjure.defs.validator;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.TypeDependencyGraph;
 import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.parser.CompileTrace;
 import com.palantir.conjure.spec.AliasDefinition;
 import com.palantir.conjure.spec.ConjureDefinition;
 import com.palantir.conjure.spec.EnumDefinition;
@@ -36,11 +38,17 @@ import com.palantir.conjure.spec.TypeName;
 import com.palantir.conjure.spec.UnionDefinition;
 import com.palantir.conjure.visitor.TypeDefinitionVisitor;
 import com.palantir.conjure.visitor.TypeVisitor;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,59 +59,104 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
     ILLEGAL_VERSION(new IllegalVersionValidator()),
     NO_RECURSIVE_TYPES(new NoRecursiveTypesValidator()),
     UNIQUE_NAMES(new UniqueNamesValidator()),
-    NO_NESTED_OPTIONAL(new NoNestedOptionalValidator());
+    NO_NESTED_OPTIONAL(new NoNestedOptionalValidator()),
+    NO_CONFLICTING_ROUTES(new NoConflictingRoutesValidator());
 
+    private static final ImmutableList<DefinitionCheck> ALL_CHECKS =
+            Arrays.stream(values()).map(value -> value.check).collect(ImmutableList.toImmutableList());
+
+    /**
+     * Runs all validators in a single traversal of the definition, throwing the error of the first failing validator
+     * in declaration order. Within a {@link CompileTrace traced} compilation, the validators run one after another
+     * instead. Both report the same error, since no validator depends on another having passed: in particular,
+     * validators that follow aliases terminate on alias cycles, which {@link #NO_RECURSIVE_TYPES} only reports once
+     * the traversal has visited every type.
+     */
     public static void validateAll(ConjureDefinition definition) {
-        for (ConjureValidator validator : values()) {
-            validator.validate(definition);
+        if (!CompileTrace.isActive()) {
+            DefinitionValidationEngine.validate(definition, ALL_CHECKS);
+            return;
+        }
+        validateEach(definition);
+    }
+
+    /** Like {@link #validateAll(ConjureDefinition)}, but reads the given index instead of building one. */
+    public static void validateAll(ConjureDefinitionIndex index) {
+        if (!CompileTrace.isActive()) {
+            DefinitionValidationEngine.validate(index, ALL_CHECKS);
+            return;
+        }
+        validateEach(index.definition());
+    }
+
+    // traced compilations run the validators one after another to attribute the time spent to each of them
+    private static void validateEach(ConjureDefinition definition) {
+        for (ConjureDefinitionValidator validator : values()) {
+            try (CompileTrace.Span span = CompileTrace.span("ConjureDefinitionValidator." + validator.name())) {
+                validator.validate(definition);
+            }
         }
     }
 
-    private final ConjureValidator<ConjureDefinition> validator;
+    private final DefinitionCheck check;
 
-    ConjureDefinitionValidator(ConjureValidator<ConjureDefinition> validator) {
-        this.validator = validator;
+    ConjureDefinitionValidator(DefinitionCheck check) {
+        this.check = check;
     }
 
     @Override
     public void validate(ConjureDefinition definition) {
-        validator.validate(definition);
+        check.validate(definition);
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class UniqueServiceNamesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class UniqueServiceNamesValidator implements DefinitionCheck {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Pass begin(ConjureDefinition definition, DefinitionIndex index) {
             Set<String> seenNames = new HashSet<>();
-            definition.getServices().forEach(service -> {
-                boolean isNewName = seenNames.add(service.getServiceName().getName());
-                Preconditions.checkState(isNewName,
-                        "Service names must be unique: %s", service.getServiceName().getName());
-            });
+            return new Pass() {
+                @Override
+                public void visitService(ServiceDefinition service) {
+                    boolean isNewName = seenNames.add(service.getServiceName().getName());
+                    Preconditions.checkState(isNewName,
+                            "Service names must be unique: %s", service.getServiceName().getName());
+                }
+            };
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class IllegalVersionValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class IllegalVersionValidator implements DefinitionCheck {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Pass begin(ConjureDefinition definition, DefinitionIndex index) {
             Preconditions.checkState(definition.getVersion() == Conjure.SUPPORTED_IR_VERSION,
                     "Definition version must be %s, but version %s is provided instead.",
                     Conjure.SUPPORTED_IR_VERSION, definition.getVersion());
+            return Pass.EMPTY;
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class UniqueNamesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class UniqueNamesValidator implements DefinitionCheck {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Pass begin(ConjureDefinition definition, DefinitionIndex index) {
             Set<TypeName> seenNames = new HashSet<>();
-            definition.getTypes().forEach(typeDef ->
-                    verifyNameIsUnique(seenNames, typeDef.accept(TypeDefinitionVisitor.TYPE_NAME)));
-            definition.getErrors().forEach(errorDef ->
-                    verifyNameIsUnique(seenNames, errorDef.getErrorName()));
-            definition.getServices().forEach(serviceDef ->
-                    verifyNameIsUnique(seenNames, serviceDef.getServiceName()));
+            return new Pass() {
+                @Override
+                public void visitType(TypeDefinition typeDef) {
+                    verifyNameIsUnique(seenNames, typeDef.accept(TypeDefinitionVisitor.TYPE_NAME));
+                }
+
+                @Override
+                public void visitError(ErrorDefinition errorDef) {
+                    verifyNameIsUnique(seenNames, errorDef.getErrorName());
+                }
+
+                @Override
+                public void visitService(ServiceDefinition serviceDef) {
+                    verifyNameIsUnique(seenNames, serviceDef.getServiceName());
+                }
+            };
         }
 
         private static void verifyNameIsUnique(Set<TypeName> seenNames, TypeName name) {
@@ -115,75 +168,147 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
         }
     }
 
+    /**
+     * Verifies that no type contains itself through a chain of object fields and aliases of reference type, which
+     * would make it impossible to construct. References within collections or optionals are fine. Runs a single
+     * iterative pass of Tarjan's strongly-connected-components algorithm, i.e., in time linear in the number of types
+     * and references, and reports a shortest cycle through the lexicographically smallest type of the first cyclic
+     * component it finds, cf.
+     * {@link TypeDependencyGraph#stronglyConnectedComponents(Iterable, java.util.function.Function)}.
+     */
     @com.google.errorprone.annotations.Immutable
-    private static final class NoRecursiveTypesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class NoRecursiveTypesValidator implements DefinitionCheck {
+        private static final Comparator<TypeName> TYPE_NAME_ORDER =
+                Comparator.comparing(TypeName::getName).thenComparing(TypeName::getPackage);
+
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Pass begin(ConjureDefinition definition, DefinitionIndex definitionIndex) {
             // create mapping from object type name -> names of reference types that are fields of that type
-            Multimap<TypeName, TypeName> typeToRefFields = HashMultimap.create();
+            Map<TypeName, List<TypeName>> typeToRefFields = new LinkedHashMap<>();
+            return new Pass() {
+                @Override
+                public void visitType(TypeDefinition type) {
+                    typeToRefFields
+                            .computeIfAbsent(type.accept(TypeDefinitionVisitor.TYPE_NAME), name -> new ArrayList<>())
+                            .addAll(getReferenceTypes(type));
+                }
 
-            definition.getTypes().stream().forEach(type ->
-                    getReferenceType(type)
-                            .ifPresent(entry -> typeToRefFields.put(
-                                    type.accept(TypeDefinitionVisitor.TYPE_NAME), entry)));
+                @Override
+                public void finish() {
+                    verifyNoCycles(typeToRefFields);
+                }
+            };
+        }
 
-            for (TypeName name : typeToRefFields.keySet()) {
-                verifyTypeHasNoRecursiveDefinitions(name, typeToRefFields, new ArrayList<>());
+        private static void verifyNoCycles(Map<TypeName, List<TypeName>> typeToRefFields) {
+            for (Set<TypeName> component
+                    : TypeDependencyGraph.stronglyConnectedComponents(typeToRefFields.keySet(), typeToRefFields::get)) {
+                verifyComponentIsAcyclic(component, typeToRefFields);
             }
         }
 
-        private static Optional<TypeName> getReferenceType(TypeDefinition typeDef) {
-            if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
-                ObjectDefinition objectDef = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                for (FieldDefinition currField : objectDef.getFields()) {
-                    Optional<TypeName> referenceType = resolveReferenceType(currField.getType());
-                    if (referenceType.isPresent()) {
-                        return referenceType;
+        private static void verifyComponentIsAcyclic(Set<TypeName> component, Map<TypeName, List<TypeName>> typeMap) {
+            TypeName start = Collections.min(component, TYPE_NAME_ORDER);
+            if (component.size() == 1 && !typeMap.getOrDefault(start, Collections.emptyList()).contains(start)) {
+                return;
+            }
+
+            // breadth-first search for a shortest path from the start back to itself within the component
+            Map<TypeName, TypeName> predecessors = new HashMap<>();
+            Deque<TypeName> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                TypeName current = queue.poll();
+                for (TypeName next : typeMap.getOrDefault(current, Collections.emptyList())) {
+                    if (next.equals(start)) {
+                        List<TypeName> path = new ArrayList<>();
+                        path.add(start);
+                        for (TypeName step = current; !step.equals(start); step = predecessors.get(step)) {
+                            path.add(step);
+                        }
+                        path.add(start);
+                        throw new IllegalStateException("Illegal recursive data type: "
+                                + Joiner.on(" -> ").join(Lists.transform(Lists.reverse(path), TypeName::getName)));
+                    }
+                    if (component.contains(next) && !predecessors.containsKey(next)) {
+                        predecessors.put(next, current);
+                        queue.add(next);
                     }
                 }
-            } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
-                AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                return resolveReferenceType(aliasDef.getAlias());
             }
-            return Optional.empty();
         }
 
-        private static Optional<TypeName> resolveReferenceType(Type type) {
-            if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                return Optional.of(type.accept(TypeVisitor.REFERENCE));
-            } else if (type.accept(TypeVisitor.IS_PRIMITIVE)) {
-                return Optional.of(
-                        TypeName.of(type.accept(TypeVisitor.PRIMITIVE).get().name(), ""));
+        private static List<TypeName> getReferenceTypes(TypeDefinition typeDef) {
+            if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+                ObjectDefinition objectDef = typeDef.accept(TypeDefinitionVisitor.OBJECT);
+                return objectDef.getFields().stream()
+                        .map(FieldDefinition::getType)
+                        .filter(type -> type.accept(TypeVisitor.IS_REFERENCE))
+                        .map(type -> type.accept(TypeVisitor.REFERENCE))
+                        .collect(Collectors.toList());
+            } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
+                if (aliasDef.getAlias().accept(TypeVisitor.IS_REFERENCE)) {
+                    return Collections.singletonList(aliasDef.getAlias().accept(TypeVisitor.REFERENCE));
+                }
             }
-            return Optional.empty();
+            return Collections.emptyList();
         }
+    }
 
-        private void verifyTypeHasNoRecursiveDefinitions(
-                TypeName typeName, Multimap<TypeName, TypeName> typeMap, List<TypeName> path) {
-            if (path.contains(typeName)) {
-                path.add(typeName);
-                throw new IllegalStateException("Illegal recursive data type: "
-                        + Joiner.on(" -> ").join(Lists.transform(path, TypeName::getName)));
-            }
+    /**
+     * Verifies that no two endpoints, in the same or in different services, share an HTTP method and path up to the
+     * names of their path parameters, and warns about routes that overlap. See {@link HttpRouteTrie}.
+     */
+    @com.google.errorprone.annotations.Immutable
+    private static final class NoConflictingRoutesValidator implements DefinitionCheck {
+        @Override
+        public Pass begin(ConjureDefinition definition, DefinitionIndex index) {
+            HttpRouteTrie<String> routes = new HttpRouteTrie<>();
+            return new Pass() {
+                @Override
+                public void visitService(ServiceDefinition serviceDef) {
+                    serviceDef.getEndpoints().forEach(endpoint -> routes.add(
+                            endpoint.getHttpMethod().get(),
+                            HttpPathTemplate.of(endpoint.getHttpPath().get()),
+                            serviceDef.getServiceName().getName() + "." + endpoint.getEndpointName().get()));
+                }
 
-            path.add(typeName);
-            for (TypeName currField : typeMap.get(typeName)) {
-                verifyTypeHasNoRecursiveDefinitions(currField, typeMap, path);
-            }
-            path.remove(path.size() - 1);
+                @Override
+                public void finish() {
+                    routes.verifyNoConflicts();
+                }
+            };
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    public static final class NoNestedOptionalValidator implements ConjureValidator<ConjureDefinition> {
+    public static final class NoNestedOptionalValidator implements DefinitionCheck {
         @Override
-        public void validate(ConjureDefinition definition) {
-            // create mapping for resolving reference types during validation
-            Map<TypeName, TypeDefinition> definitionMap = definition.getTypes().stream().collect(
-                    Collectors.toMap(entry -> entry.accept(TypeDefinitionVisitor.TYPE_NAME), entry -> entry));
-            definition.getTypes().stream().forEach(def -> validateTypeDefinition(def, definitionMap));
-            definition.getErrors().forEach(def -> validateErrorDefinition(def, definitionMap));
-            definition.getServices().forEach(def -> validateServiceDefinition(def, definitionMap));
+        public Set<DefinitionIndex.Kind> requiredIndexes() {
+            // mapping for resolving reference types during validation
+            return Collections.singleton(DefinitionIndex.Kind.TYPES_BY_NAME);
+        }
+
+        @Override
+        public Pass begin(ConjureDefinition definition, DefinitionIndex index) {
+            Map<TypeName, TypeDefinition> definitionMap = index.typesByName();
+            return new Pass() {
+                @Override
+                public void visitType(TypeDefinition def) {
+                    validateTypeDefinition(def, definitionMap);
+                }
+
+                @Override
+                public void visitError(ErrorDefinition def) {
+                    validateErrorDefinition(def, definitionMap);
+                }
+
+                @Override
+                public void visitService(ServiceDefinition def) {
+                    validateServiceDefinition(def, definitionMap);
+                }
+            };
         }
 
         private static void validateServiceDefinition(ServiceDefinition serviceDef,
@@ -277,19 +402,29 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
 
         private static boolean recursivelyFindNestedOptionals(
                 Type type, Map<TypeName, TypeDefinition> definitionMap, boolean isOptionalSeen) {
+            return recursivelyFindNestedOptionals(type, definitionMap, isOptionalSeen, new HashSet<>());
+        }
+
+        // aliases may form cycles, which NO_RECURSIVE_TYPES reports unless they pass through an optional, so each alias
+        // is followed at most once before and once after the first optional, which suffices to find nested optionals
+        private static boolean recursivelyFindNestedOptionals(Type type, Map<TypeName, TypeDefinition> definitionMap,
+                boolean isOptionalSeen, Set<TypeName> visitedAliases) {
             if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                TypeDefinition referenceDefinition = definitionMap.get(type.accept(TypeVisitor.REFERENCE));
+                TypeName reference = type.accept(TypeVisitor.REFERENCE);
+                TypeDefinition referenceDefinition = definitionMap.get(reference);
                 // we only care about reference of alias type
-                if (referenceDefinition != null && referenceDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                if (referenceDefinition != null && referenceDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)
+                        && visitedAliases.add(reference)) {
                     AliasDefinition aliasDef = referenceDefinition.accept(TypeDefinitionVisitor.ALIAS);
-                    return recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap, isOptionalSeen);
+                    return recursivelyFindNestedOptionals(
+                            aliasDef.getAlias(), definitionMap, isOptionalSeen, visitedAliases);
                 }
             } else if (type.accept(TypeVisitor.IS_OPTIONAL)) {
                 if (isOptionalSeen) {
                     return true;
                 }
                 return recursivelyFindNestedOptionals(type.accept(TypeVisitor.OPTIONAL).getItemType(), definitionMap,
-                        true);
+                        true, new HashSet<>());
             }
             return false;
         }
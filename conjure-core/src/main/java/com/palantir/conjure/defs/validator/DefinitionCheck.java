@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A whole-definition check that {@link DefinitionValidationEngine} runs as part of a single traversal of a
+ * {@link ConjureDefinition}, alongside all other registered checks.
+ */
+@com.google.errorprone.annotations.Immutable
+interface DefinitionCheck extends ConjureValidator<ConjureDefinition> {
+
+    /** The indexes this check reads from the {@link DefinitionIndex} passed to {@link #begin}. */
+    default Set<DefinitionIndex.Kind> requiredIndexes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Starts a validation run over the given definition and returns the pass that receives its type, error and
+     * service definitions. May throw if the definition as a whole is invalid.
+     */
+    Pass begin(ConjureDefinition definition, DefinitionIndex index);
+
+    @Override
+    default void validate(ConjureDefinition definition) {
+        DefinitionValidationEngine.validate(definition, Collections.singletonList(this));
+    }
+
+    /**
+     * The per-run state of a {@link DefinitionCheck}. Definitions are visited in declaration order: all types, then
+     * all errors, then all services, followed by {@link #finish}.
+     */
+    interface Pass {
+        Pass EMPTY = new Pass() {};
+
+        default void visitType(TypeDefinition typeDef) {}
+
+        default void visitError(ErrorDefinition errorDef) {}
+
+        default void visitService(ServiceDefinition serviceDef) {}
+
+        default void finish() {}
+    }
+}
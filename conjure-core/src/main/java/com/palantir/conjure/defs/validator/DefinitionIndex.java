@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.base.Preconditions;
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup tables over a {@link ConjureDefinition} shared by all {@link DefinitionCheck checks} of a validation run.
+ * The {@link ConjureDefinitionIndex} is only built if at least one check declared an index via
+ * {@link DefinitionCheck#requiredIndexes}, unless the caller already built it.
+ */
+final class DefinitionIndex {
+
+    enum Kind {
+        /** Maps each type name to its definition; if a name is defined more than once, the first definition wins. */
+        TYPES_BY_NAME
+    }
+
+    private final ConjureDefinitionIndex index;
+
+    private DefinitionIndex(ConjureDefinitionIndex index) {
+        this.index = index;
+    }
+
+    static DefinitionIndex build(ConjureDefinition definition, Set<Kind> kinds) {
+        return new DefinitionIndex(kinds.isEmpty() ? null : ConjureDefinitionIndex.of(definition));
+    }
+
+    static DefinitionIndex of(ConjureDefinitionIndex index) {
+        return new DefinitionIndex(index);
+    }
+
+    Map<TypeName, TypeDefinition> typesByName() {
+        Preconditions.checkState(index != null, "Index %s was not declared by any check", Kind.TYPES_BY_NAME);
+        return index.types();
+    }
+}
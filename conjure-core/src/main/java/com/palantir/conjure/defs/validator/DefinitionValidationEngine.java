@@ -0,0 +1,104 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Runs a list of {@link DefinitionCheck checks} over a {@link ConjureDefinition} by building the indexes they need
+ * once and then visiting every type, error and service definition once, dispatching each to all checks.
+ * <p>
+ * Failures are reported as if the checks had run one after another: if several checks fail, the exception of the
+ * first failing check in list order is thrown. A check that failed is not visited any more, and neither are the
+ * checks after it, since their outcome can no longer affect the result.
+ */
+final class DefinitionValidationEngine {
+
+    private final List<DefinitionCheck.Pass> passes;
+    private RuntimeException failure;
+    private int activeChecks;
+
+    private DefinitionValidationEngine(int numChecks) {
+        this.passes = new ArrayList<>(numChecks);
+        this.activeChecks = numChecks;
+    }
+
+    static void validate(ConjureDefinition definition, List<? extends DefinitionCheck> checks) {
+        Set<DefinitionIndex.Kind> indexKinds = EnumSet.noneOf(DefinitionIndex.Kind.class);
+        checks.forEach(check -> indexKinds.addAll(check.requiredIndexes()));
+        validate(definition, DefinitionIndex.build(definition, indexKinds), checks);
+    }
+
+    /** Like {@link #validate(ConjureDefinition, List)}, but reads the given index instead of building one. */
+    static void validate(ConjureDefinitionIndex conjureIndex, List<? extends DefinitionCheck> checks) {
+        validate(conjureIndex.definition(), DefinitionIndex.of(conjureIndex), checks);
+    }
+
+    private static void validate(
+            ConjureDefinition definition, DefinitionIndex index, List<? extends DefinitionCheck> checks) {
+        DefinitionValidationEngine engine = new DefinitionValidationEngine(checks.size());
+        for (DefinitionCheck check : checks) {
+            if (engine.passes.size() >= engine.activeChecks) {
+                break;
+            }
+            try {
+                engine.passes.add(check.begin(definition, index));
+            } catch (RuntimeException e) {
+                engine.fail(engine.passes.size(), e);
+            }
+        }
+
+        for (TypeDefinition typeDef : definition.getTypes()) {
+            engine.dispatch(pass -> pass.visitType(typeDef));
+        }
+        for (ErrorDefinition errorDef : definition.getErrors()) {
+            engine.dispatch(pass -> pass.visitError(errorDef));
+        }
+        for (ServiceDefinition serviceDef : definition.getServices()) {
+            engine.dispatch(pass -> pass.visitService(serviceDef));
+        }
+        engine.dispatch(DefinitionCheck.Pass::finish);
+
+        if (engine.failure != null) {
+            throw engine.failure;
+        }
+    }
+
+    private void dispatch(Consumer<DefinitionCheck.Pass> action) {
+        for (int i = 0; i < activeChecks; i++) {
+            try {
+                action.accept(passes.get(i));
+            } catch (RuntimeException e) {
+                fail(i, e);
+            }
+        }
+    }
+
+    private void fail(int checkIndex, RuntimeException exception) {
+        failure = exception;
+        activeChecks = checkIndex;
+    }
+}
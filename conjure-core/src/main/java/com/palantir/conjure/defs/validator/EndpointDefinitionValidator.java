@@ -18,7 +18,9 @@ package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.either.Either;
+import com.palantir.conjure.parser.CompileTrace;
 import com.palantir.conjure.spec.ArgumentDefinition;
 import com.palantir.conjure.spec.ArgumentName;
 import com.palantir.conjure.spec.EndpointDefinition;
@@ -41,7 +43,7 @@ import com.palantir.conjure.visitor.TypeVisitor;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -63,8 +65,18 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
     private static final Logger log = LoggerFactory.getLogger(EndpointDefinitionValidator.class);
 
     public static void validateAll(EndpointDefinition definition, DealiasingTypeVisitor dealiasingVisitor) {
+        if (!CompileTrace.isActive()) {
+            for (EndpointDefinitionValidator validator : values()) {
+                validator.validate(definition, dealiasingVisitor);
+            }
+            return;
+        }
+        String endpointName = definition.getEndpointName().get();
         for (EndpointDefinitionValidator validator : values()) {
-            validator.validate(definition, dealiasingVisitor);
+            try (CompileTrace.Span span = CompileTrace.span(
+                    "EndpointDefinitionValidator." + validator.name(), "endpoint", endpointName)) {
+                validator.validate(definition, dealiasingVisitor);
+            }
         }
     }
 
@@ -314,8 +326,7 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
         @Override
         public void validate(EndpointDefinition definition) {
             definition.getArgs().forEach(arg -> {
-                Matcher matcher = ANCHORED_PATTERN.matcher(arg.getArgName().get());
-                Preconditions.checkState(matcher.matches(),
+                Preconditions.checkState(NameScanners.isParameterName(arg.getArgName().get()),
                         "Parameter names in endpoint paths and service definitions must match pattern %s: %s",
                         ANCHORED_PATTERN,
                         arg.getArgName().get());
@@ -329,25 +340,28 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
         public void validate(EndpointDefinition definition) {
             definition.getArgs().forEach(arg -> {
                 final Pattern pattern;
+                final Predicate<String> scanner;
                 ParameterType paramType = arg.getParamType();
                 if (paramType.accept(ParameterTypeVisitor.IS_BODY)
                         || paramType.accept(ParameterTypeVisitor.IS_PATH)
                         || paramType.accept(ParameterTypeVisitor.IS_QUERY)) {
                     pattern = ANCHORED_PATTERN;
+                    scanner = NameScanners::isParameterName;
                 } else if (paramType.accept(ParameterTypeVisitor.IS_HEADER)) {
                     pattern = HEADER_PATTERN;
+                    scanner = NameScanners::isHeaderName;
                 } else {
                     throw new IllegalStateException("Validation for paramType does not exist: " + arg.getParamType());
                 }
 
                 if (paramType.accept(ParameterTypeVisitor.IS_QUERY)) {
                     ParameterId paramId = paramType.accept(ParameterTypeVisitor.QUERY).getParamId();
-                    Preconditions.checkState(pattern.matcher(paramId.get()).matches(),
+                    Preconditions.checkState(scanner.test(paramId.get()),
                             "Parameter ids with type %s must match pattern %s: %s",
                             arg.getParamType(), pattern, paramId.get());
                 } else if (paramType.accept(ParameterTypeVisitor.IS_HEADER)) {
                     ParameterId paramId = paramType.accept(ParameterTypeVisitor.HEADER).getParamId();
-                    Preconditions.checkState(pattern.matcher(paramId.get()).matches(),
+                    Preconditions.checkState(scanner.test(paramId.get()),
                             "Parameter ids with type %s must match pattern %s: %s",
                             arg.getParamType(), pattern, paramId.get());
                 }
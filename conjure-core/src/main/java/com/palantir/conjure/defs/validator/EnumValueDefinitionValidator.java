@@ -17,6 +17,7 @@
 package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.spec.EnumValueDefinition;
 import java.util.regex.Pattern;
 
@@ -59,7 +60,7 @@ public enum EnumValueDefinitionValidator implements ConjureValidator<EnumValueDe
 
         @Override
         public void validate(EnumValueDefinition definition) {
-            Preconditions.checkArgument(REQUIRED_FORMAT.matcher(definition.getValue()).matches(),
+            Preconditions.checkArgument(NameScanners.isEnumValue(definition.getValue()),
                     "Enumeration values must match format %s: %s", REQUIRED_FORMAT, definition.getValue());
         }
     }
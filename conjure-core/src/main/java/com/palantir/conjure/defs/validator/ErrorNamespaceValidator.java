@@ -17,6 +17,7 @@
 package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.spec.ErrorNamespace;
 import java.util.regex.Pattern;
 
@@ -27,7 +28,7 @@ public final class ErrorNamespaceValidator {
     private static final Pattern UPPER_CAMEL_CASE = Pattern.compile("(([A-Z][a-z0-9]+)+)");
 
     public static void validate(ErrorNamespace name) {
-        Preconditions.checkArgument(UPPER_CAMEL_CASE.matcher(name.get()).matches(),
+        Preconditions.checkArgument(NameScanners.isUpperCamelCase(name.get()),
                 "Namespace for errors must match pattern %s: %s", UPPER_CAMEL_CASE, name);
     }
 }
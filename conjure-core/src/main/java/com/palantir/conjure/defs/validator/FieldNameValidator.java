@@ -18,8 +18,10 @@ package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
 import com.palantir.conjure.CaseConverter;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.spec.FieldName;
 import java.util.Arrays;
+import java.util.Optional;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,30 +42,19 @@ public final class FieldNameValidator {
 
     /** Converts this {@link FieldName} to a {@link FieldName} with the given case. */
     public static FieldName toCase(FieldName fieldName, CaseConverter.Case targetCase) {
-        return FieldName.of(nameCase(fieldName).convertTo(fieldName.get(), targetCase));
+        return FieldName.of(CaseConverter.toCase(fieldName.get(), targetCase));
     }
 
     @SuppressWarnings("Slf4jLogsafeArgs")
     public static void validate(FieldName fieldName) {
-        Preconditions.checkArgument(
-                CaseConverter.CAMEL_CASE_PATTERN.matcher(fieldName.get()).matches()
-                        || CaseConverter.KEBAB_CASE_PATTERN.matcher(fieldName.get()).matches()
-                        || CaseConverter.SNAKE_CASE_PATTERN.matcher(fieldName.get()).matches(),
+        Optional<CaseConverter.Case> nameCase = NameScanners.fieldNameCase(fieldName.get());
+        Preconditions.checkArgument(nameCase.isPresent(),
                 "FieldName \"%s\" must follow one of the following patterns: %s",
                 fieldName, Arrays.toString(CaseConverter.Case.values()));
 
-        if (!CaseConverter.CAMEL_CASE_PATTERN.matcher(fieldName.get()).matches()) {
+        if (nameCase.get() != CaseConverter.Case.LOWER_CAMEL_CASE) {
             log.warn("{} should be specified in lowerCamelCase. kebab-case and snake_case are supported for "
                     + "legacy endpoints only: {}", FieldName.class, fieldName.get());
         }
     }
-
-    private static CaseConverter.Case nameCase(FieldName fieldName) {
-        for (CaseConverter.Case nameCase : CaseConverter.Case.values()) {
-            if (nameCase.getPattern().matcher(fieldName.get()).matches()) {
-                return nameCase;
-            }
-        }
-        throw new IllegalStateException("Could not find case for FieldName, this is a bug: " + fieldName.get());
-    }
 }
@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.parser.ConjureMetrics;
+import com.palantir.conjure.spec.ArgumentName;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An HTTP path such as {@code /catalog/{id}/items/{path:.+}}, split once into its literal and variable segments.
+ * <p>
+ * Templates are immutable and interned in a bounded cache by {@link #of}, so that path argument extraction, path
+ * validation and parameter type inference for an endpoint all share a single tokenization of its path. Tokenizing
+ * never fails; whether the segments are legal Conjure path segments is checked by {@link HttpPathValidator}.
+ */
+public final class HttpPathTemplate {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Cache<String, HttpPathTemplate> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    private static final Splitter SEGMENT_SPLITTER = Splitter.on('/');
+
+    private static final ConjureMetrics.Counter HITS = ConjureMetrics.counter(HttpPathTemplate.class, "cache", "hit");
+    private static final ConjureMetrics.Counter MISSES =
+            ConjureMetrics.counter(HttpPathTemplate.class, "cache", "miss");
+    private final String path;
+    private final ImmutableList<Segment> segments;
+    private final ImmutableSet<ArgumentName> variables;
+
+    private HttpPathTemplate(String path, ImmutableList<Segment> segments) {
+        this.path = path;
+        this.segments = segments;
+        this.variables = segments.stream()
+                .filter(Segment::isVariable)
+                .map(segment -> ArgumentName.of(segment.value()))
+                .collect(ImmutableSet.toImmutableSet());
+    }
+
+    public static HttpPathTemplate of(String path) {
+        HttpPathTemplate result = CACHE.getIfPresent(path);
+        if (result != null) {
+            HITS.inc();
+            return result;
+        }
+
+        MISSES.inc();
+        result = parse(path);
+        HttpPathTemplate existing = CACHE.asMap().putIfAbsent(path, result);
+        return existing != null ? existing : result;
+    }
+
+    private static HttpPathTemplate parse(String path) {
+        String relativePath = HttpPathValidator.withoutLeadingSlash(path);
+        if (relativePath.isEmpty()) {
+            return new HttpPathTemplate(path, ImmutableList.of());
+        }
+
+        ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+        for (String segment : SEGMENT_SPLITTER.split(relativePath)) {
+            segments.add(Segment.parse(segment));
+        }
+        return new HttpPathTemplate(path, segments.build());
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /** The segments of the path, in order, excluding the leading {@code /}. */
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    /** The distinct names of the path's variables, in order of appearance. */
+    public Set<ArgumentName> variables() {
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /** A single segment of an {@link HttpPathTemplate}, either a literal or a {@code {variable}}. */
+    public static final class Segment {
+        private final String raw;
+        private final String value;
+        private final Optional<String> regex;
+        private final boolean isVariable;
+
+        private Segment(String raw, String value, Optional<String> regex, boolean isVariable) {
+            this.raw = raw;
+            this.value = value;
+            this.regex = regex;
+            this.isVariable = isVariable;
+        }
+
+        private static Segment parse(String raw) {
+            if (raw.length() < 2 || raw.charAt(0) != '{' || raw.charAt(raw.length() - 1) != '}') {
+                return new Segment(raw, raw, Optional.empty(), false);
+            }
+            int colon = raw.indexOf(':');
+            if (colon < 0) {
+                return new Segment(raw, raw.substring(1, raw.length() - 1), Optional.empty(), true);
+            }
+            return new Segment(
+                    raw, raw.substring(1, colon), Optional.of(raw.substring(colon + 1, raw.length() - 1)), true);
+        }
+
+        public boolean isVariable() {
+            return isVariable;
+        }
+
+        /** The literal text of a literal segment, or the name of a variable segment. */
+        public String value() {
+            return value;
+        }
+
+        /** The regular expression of a variable segment such as {@code {path:.+}}, i.e., {@code .+}. */
+        public Optional<String> regex() {
+            return regex;
+        }
+
+        @Override
+        public String toString() {
+            return raw;
+        }
+    }
+}
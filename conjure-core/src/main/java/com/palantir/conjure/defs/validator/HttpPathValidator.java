@@ -17,7 +17,7 @@
 package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Splitter;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.parser.ConjureMetrics;
 import com.palantir.conjure.spec.ArgumentName;
 import com.palantir.conjure.spec.HttpPath;
@@ -25,12 +25,8 @@ import com.palantir.util.syntacticpath.Path;
 import com.palantir.util.syntacticpath.Paths;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import org.glassfish.jersey.uri.UriTemplate;
-import org.glassfish.jersey.uri.internal.UriTemplateParser;
 
 public final class HttpPathValidator {
 
@@ -43,16 +39,14 @@ public final class HttpPathValidator {
             Pattern.compile(
                     "^\\{" + PATTERN + "(" + Pattern.quote(":.+") + "|" + Pattern.quote(":.*") + ")"
                             + "}$");
+    private static final ConjureMetrics.Histogram TEMPLATE_VARS =
+            ConjureMetrics.histogram(HttpPathValidator.class, "template-vars");
 
     /**
      * returns path arguments of the http path.
      */
     public static Set<ArgumentName> pathArgs(String httpPath) {
-        UriTemplate uriTemplate = new UriTemplate(httpPath);
-        return uriTemplate.getTemplateVariables()
-                .stream()
-                .map(ArgumentName::of)
-                .collect(Collectors.toSet());
+        return HttpPathTemplate.of(httpPath).variables();
     }
 
     /** validates if a new instance has the correct syntax. */
@@ -65,45 +59,37 @@ public final class HttpPathValidator {
 
         for (String segment : path.getSegments()) {
             Preconditions.checkArgument(
-                    SEGMENT_PATTERN.matcher(segment).matches()
-                            || PARAM_SEGMENT_PATTERN.matcher(segment).matches()
-                            || PARAM_REGEX_SEGMENT_PATTERN.matcher(segment).matches(),
+                    NameScanners.isPathSegment(segment),
                     "Segment %s of path %s did not match required segment patterns %s or parameter name "
                             + "patterns %s or %s",
                     segment, path, SEGMENT_PATTERN, PARAM_SEGMENT_PATTERN, PARAM_REGEX_SEGMENT_PATTERN);
         }
 
         // verify that path template variables are unique
+        HttpPathTemplate template = HttpPathTemplate.of(path.toString());
         Set<String> templateVars = new HashSet<>();
-        new UriTemplate(path.toString()).getTemplateVariables().stream().forEach(var -> {
+        template.segments().stream().filter(HttpPathTemplate.Segment::isVariable).forEach(segment -> {
+            String var = segment.value();
             Preconditions.checkState(!templateVars.contains(var),
                     "Path parameter %s appears more than once in path %s", var, path);
             templateVars.add(var);
         });
-        ConjureMetrics.histogram(templateVars.size(), HttpPathValidator.class, "template-vars");
+        TEMPLATE_VARS.update(templateVars.size());
 
-        UriTemplateParser uriTemplateParser = new UriTemplateParser(path.toString());
-        Map<String, Pattern> nameToPattern = uriTemplateParser.getNameToPattern();
-        List<String> segments = Splitter.on('/').splitToList(uriTemplateParser.getNormalizedTemplate());
+        List<HttpPathTemplate.Segment> segments = template.segments();
         for (int i = 0; i < segments.size(); i++) {
-            String segment = segments.get(i);
-            if (!(segment.startsWith("{") && segment.endsWith("}"))) {
-                // path literal
-                continue;
-            }
-
-            // variable
-            Pattern varPattern = nameToPattern.get(segment.substring(1, segment.length() - 1));
-            if (varPattern.equals(UriTemplateParser.TEMPLATE_VALUE_PATTERN)) {
-                // no regular expression specified -- OK
+            HttpPathTemplate.Segment segment = segments.get(i);
+            if (!segment.isVariable() || !segment.regex().isPresent()) {
+                // path literal, or variable without regular expression -- OK
                 continue;
             }
 
             // if regular expression was specified, it must be ".+" or ".*" based on invariant previously enforced
-            Preconditions.checkState(i == segments.size() - 1 || !varPattern.pattern().equals(".*"),
+            String varPattern = segment.regex().get();
+            Preconditions.checkState(i == segments.size() - 1 || !varPattern.equals(".*"),
                     "Path parameter %s in path %s specifies regular expression %s, but this regular "
-                            + "expression is only permitted if the path parameter is the last segment", segment,
-                    path, varPattern);
+                            + "expression is only permitted if the path parameter is the last segment",
+                    "{" + segment.value() + "}", path, varPattern);
         }
     }
 
@@ -0,0 +1,144 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A trie of the HTTP routes of all endpoints, keyed by method and then by path segment, in which all path parameters
+ * at the same position share a node. Building the trie and checking it for conflicts takes time linear in the total
+ * number of path segments.
+ * <p>
+ * Two endpoints with the same method and the same path up to the names and regular expressions of their path
+ * parameters conflict, since no server can route between them. Routes in which a literal segment and a path
+ * parameter, or a multi-segment parameter such as {@code {path:.+}} and further segments, compete for the same
+ * requests are legal, because servers prefer the longest literal prefix, but are reported as warnings.
+ * <p>
+ * Each route is associated with the endpoints, of arbitrary type {@code E}, that were added for it.
+ */
+public final class HttpRouteTrie<E> {
+    private static final Logger log = LoggerFactory.getLogger(HttpRouteTrie.class);
+    private static final String PATH_PARAMETER = "{arg}";
+
+    private final Map<String, Node<E>> roots = new TreeMap<>();
+
+    public void add(String method, HttpPathTemplate template, E endpoint) {
+        Node<E> node = roots.computeIfAbsent(method, key -> new Node<>(null, method));
+        for (HttpPathTemplate.Segment segment : template.segments()) {
+            if (segment.isVariable()) {
+                if (node.variable == null) {
+                    node.variable = new Node<>(node, PATH_PARAMETER);
+                }
+                node = node.variable;
+                node.matchesMultipleSegments |= segment.regex().isPresent();
+            } else {
+                Node<E> parent = node;
+                node = node.literals.computeIfAbsent(segment.value(), literal -> new Node<>(parent, literal));
+            }
+        }
+        node.endpoints.add(endpoint);
+    }
+
+    /** The root node of each HTTP method, sorted by method. */
+    public Map<String, Node<E>> roots() {
+        return Collections.unmodifiableMap(roots);
+    }
+
+    /** Throws if two endpoints share a route, and logs a warning for each set of overlapping routes. */
+    public void verifyNoConflicts() {
+        Deque<Node<E>> pending = new ArrayDeque<>(roots.values());
+        while (!pending.isEmpty()) {
+            Node<E> node = pending.pop();
+            Preconditions.checkState(node.endpoints.size() <= 1,
+                    "Endpoint \"%s\" is defined by multiple endpoints: %s", node, node.endpoints);
+
+            if (node.variable != null && !node.literals.isEmpty()) {
+                log.warn("Routes {} overlap with routes for literal segments {} at the same position; "
+                                + "requests matching a literal segment are routed to it",
+                        node.variable, node.literals.keySet());
+            }
+            if (node.matchesMultipleSegments && (node.variable != null || !node.literals.isEmpty())) {
+                log.warn("Path parameter in {} may match multiple segments, so routes continuing after it are "
+                        + "ambiguous", node);
+            }
+
+            pending.addAll(node.literals.values());
+            if (node.variable != null) {
+                pending.add(node.variable);
+            }
+        }
+    }
+
+    /** The set of requests that share an HTTP method and a path prefix. */
+    public static final class Node<E> {
+        private final Node<E> parent;
+        private final String segment;
+        private final Map<String, Node<E>> literals = new TreeMap<>();
+        private final List<E> endpoints = new ArrayList<>(1);
+        private Node<E> variable;
+        private boolean matchesMultipleSegments;
+
+        private Node(Node<E> parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        /** The children for the literal segments following this prefix, sorted by segment. */
+        public Map<String, Node<E>> literals() {
+            return Collections.unmodifiableMap(literals);
+        }
+
+        /** The child for a path parameter following this prefix, if any. */
+        public Optional<Node<E>> variable() {
+            return Optional.ofNullable(variable);
+        }
+
+        /** Whether some path parameter ending at this node may match more than one segment, e.g., {@code {x:.+}}. */
+        public boolean matchesMultipleSegments() {
+            return matchesMultipleSegments;
+        }
+
+        /** The endpoints whose path ends at this node, in the order in which they were added. */
+        public List<E> endpoints() {
+            return Collections.unmodifiableList(endpoints);
+        }
+
+        /** The route of this node, e.g., {@code GET /catalog/{arg}}; computed on demand to keep traversals linear. */
+        @Override
+        public String toString() {
+            if (parent == null) {
+                return segment + " /";
+            }
+            Deque<String> segments = new ArrayDeque<>();
+            Node<E> node = this;
+            for (; node.parent != null; node = node.parent) {
+                segments.push(node.segment);
+            }
+            return node.segment + " /" + String.join("/", segments);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.NameScanners;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -37,9 +38,7 @@ public final class PackageValidator {
     }
 
     public static void validate(String name) {
-        // TODO(rfink): NPE when the pattern is static !?!?
-
-        Preconditions.checkArgument(VALID_PACKAGE.matcher(name).matches(),
+        Preconditions.checkArgument(NameScanners.isPackage(name),
                 "Conjure package names must match pattern %s: %s", VALID_PACKAGE.pattern(), name);
     }
 
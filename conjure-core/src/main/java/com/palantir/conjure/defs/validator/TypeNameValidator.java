@@ -18,6 +18,7 @@ package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.spec.PrimitiveType;
 import com.palantir.conjure.spec.TypeName;
 import java.util.List;
@@ -34,7 +35,7 @@ public final class TypeNameValidator {
 
     public static void validate(TypeName typeName) {
         Preconditions.checkArgument(
-                CUSTOM_TYPE_PATTERN.matcher(typeName.getName()).matches()
+                NameScanners.isUpperCamelCase(typeName.getName())
                         || PRIMITIVE_TYPES.contains(typeName.getName()),
                 "TypeNames must be a primitive type %s or match pattern %s: %s",
                 PRIMITIVE_TYPES, CUSTOM_TYPE_PATTERN, typeName.getName());
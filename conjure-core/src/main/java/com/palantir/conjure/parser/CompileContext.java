@@ -0,0 +1,219 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Scopes the {@link ConjureMetrics} recorded by a single compilation to a registry of its own, such that concurrent
+ * compilations in one JVM, e.g., in the conjure daemon or in tests, neither mix their metrics nor contend on the same
+ * metric instances. A context is installed on the compiling thread by {@link #call} and carried over to the tasks the
+ * parser and translator submit to executors; metrics recorded outside of any context go to the {@link
+ * SharedMetricRegistries#tryGetDefault() default shared registry}, if one is set. Once a compilation is done, its
+ * metrics may be added to another registry with {@link #mergeInto} or {@link #mergeIntoDefault}. A context created
+ * with {@link #createForDefault} only records metrics if there is a default registry to merge them into, and
+ * otherwise none at all. A traced context also records the {@link CompileTrace#span spans} of the compilation.
+ */
+public final class CompileContext {
+    private static final ThreadLocal<CompileContext> CURRENT = new ThreadLocal<>();
+
+    // null if this context records no metrics
+    private final MetricRegistry registry;
+    private final Optional<CompileTrace> trace;
+    // resolved metrics of this context's registry, indexed by ConjureMetrics handle
+    private volatile AtomicReferenceArray<Metric> metrics = new AtomicReferenceArray<>(0);
+
+    private CompileContext(MetricRegistry registry, Optional<CompileTrace> trace) {
+        this.registry = registry;
+        this.trace = trace;
+    }
+
+    /** Creates a context that records into a new, empty registry. */
+    public static CompileContext create() {
+        return new CompileContext(new MetricRegistry(), Optional.empty());
+    }
+
+    /** Like {@link #create}, but also records a {@link CompileTrace trace} of the compilation. */
+    public static CompileContext createTraced() {
+        return new CompileContext(new MetricRegistry(), Optional.of(new CompileTrace()));
+    }
+
+    /**
+     * Creates a context whose metrics are meant to be {@link #mergeIntoDefault merged into the default shared
+     * registry}. If none is set, the context records no metrics, and metric handles do nothing within it, just as
+     * outside of any context.
+     */
+    public static CompileContext createForDefault(boolean traced) {
+        return new CompileContext(
+                SharedMetricRegistries.tryGetDefault() != null ? new MetricRegistry() : null,
+                traced ? Optional.of(new CompileTrace()) : Optional.empty());
+    }
+
+    /** The registry holding the metrics recorded in this context. */
+    public MetricRegistry registry() {
+        Preconditions.checkState(registry != null, "This context records no metrics");
+        return registry;
+    }
+
+    /** The trace of this context, if it was created with {@link #createTraced}. */
+    public Optional<CompileTrace> trace() {
+        return trace;
+    }
+
+    /** Runs the given compilation with this context installed on the current thread, and returns its result. */
+    public <T> T call(Supplier<T> compilation) {
+        CompileContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return compilation.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Returns a task that runs the given task with the context of the calling thread installed, if any, for tasks
+     * that a compilation submits to an executor.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        CompileContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            CompileContext previous = CURRENT.get();
+            CURRENT.set(context);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Waits for the result of a task that a compilation submitted to an executor, rethrowing its failure as-is if
+     * unchecked, such that callers see the same exceptions as if the task had run on the calling thread.
+     */
+    public static <T> T getUnchecked(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Adds the counters and histograms of this context to the identically named metrics of the given registry.
+     * Histograms are merged by replaying the values retained by their reservoir, i.e., the target's reservoir
+     * samples from a sample.
+     */
+    public void mergeInto(MetricRegistry target) {
+        if (registry == null) {
+            return;
+        }
+        for (Map.Entry<String, Counter> counter : registry.getCounters().entrySet()) {
+            target.counter(counter.getKey()).inc(counter.getValue().getCount());
+        }
+        for (Map.Entry<String, Histogram> histogram : registry.getHistograms().entrySet()) {
+            Histogram targetHistogram = target.histogram(histogram.getKey());
+            for (long value : histogram.getValue().getSnapshot().getValues()) {
+                targetHistogram.update(value);
+            }
+        }
+    }
+
+    /** Like {@link #mergeInto}, with the default shared registry if one is set, and otherwise does nothing. */
+    public void mergeIntoDefault() {
+        MetricRegistry defaultRegistry = SharedMetricRegistries.tryGetDefault();
+        if (defaultRegistry != null) {
+            mergeInto(defaultRegistry);
+        }
+    }
+
+    /** Whether this context records metrics, see {@link #createForDefault}. */
+    boolean recordsMetrics() {
+        return registry != null;
+    }
+
+    /** The context installed on the current thread, or {@code null} if none is. */
+    static CompileContext currentOrNull() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The registry of the current context if there is one, else the default shared registry; {@code null} if the
+     * current context records no metrics, or if there is neither a context nor a default registry.
+     */
+    static MetricRegistry currentRegistryOrNull() {
+        CompileContext context = CURRENT.get();
+        return context != null ? context.registry : SharedMetricRegistries.tryGetDefault();
+    }
+
+    /** The metric cached for the handle with the given index, or {@code null} if none was cached yet. */
+    Metric cachedMetric(int index) {
+        AtomicReferenceArray<Metric> current = metrics;
+        return index < current.length() ? current.get(index) : null;
+    }
+
+    void cacheMetric(int index, Metric metric) {
+        AtomicReferenceArray<Metric> current = metrics;
+        if (index >= current.length()) {
+            current = grow(index + 1);
+        }
+        // a racing grow may drop this entry, in which case the metric is just resolved again
+        current.set(index, metric);
+    }
+
+    private synchronized AtomicReferenceArray<Metric> grow(int minLength) {
+        AtomicReferenceArray<Metric> current = metrics;
+        if (current.length() >= minLength) {
+            return current;
+        }
+        AtomicReferenceArray<Metric> grown = new AtomicReferenceArray<>(Math.max(minLength, 2 * current.length()));
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        metrics = grown;
+        return grown;
+    }
+
+    private static void restore(CompileContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
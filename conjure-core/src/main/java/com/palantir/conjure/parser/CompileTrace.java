@@ -0,0 +1,171 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the phases of a compilation as spans and writes them in the Chrome trace-event format, which can be loaded
+ * into {@code chrome://tracing} or Perfetto. A compilation is traced if it runs in a {@link CompileContext} created
+ * with {@link CompileContext#createTraced}; outside of such a context, {@link #span} returns a span that does
+ * nothing. Spans must be closed on the thread that opened them, e.g., in a try-with-resources block.
+ */
+public final class CompileTrace {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Span NOOP_SPAN = new Span(null, null, null, null);
+    // the pid of all events, since a trace only covers this process
+    private static final int PID = 1;
+
+    private final long startNanos = System.nanoTime();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+
+    CompileTrace() {}
+
+    /** Opens a span of the given name in the trace of the current context, if any. */
+    public static Span span(String name) {
+        return span(name, null, null);
+    }
+
+    /** Like {@link #span(String)}, with a single argument shown alongside the span, e.g., the file it processes. */
+    public static Span span(String name, String argName, Object argValue) {
+        CompileContext context = CompileContext.currentOrNull();
+        Optional<CompileTrace> trace = context != null ? context.trace() : Optional.empty();
+        if (!trace.isPresent()) {
+            return NOOP_SPAN;
+        }
+        return new Span(trace.get(), name, argName, argValue != null ? argValue.toString() : null);
+    }
+
+    /** Whether the current context records a trace, for callers that only split up work to trace it. */
+    public static boolean isActive() {
+        CompileContext context = CompileContext.currentOrNull();
+        return context != null && context.trace().isPresent();
+    }
+
+    /** Writes the spans closed so far as a JSON trace to the given file. */
+    public void write(File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    /** Writes the spans closed so far as a JSON trace to the given stream, which is left open. */
+    public void write(OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("displayTimeUnit", "ms");
+            generator.writeArrayFieldStart("traceEvents");
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("name", "thread_name");
+                generator.writeStringField("ph", "M");
+                generator.writeNumberField("pid", PID);
+                generator.writeNumberField("tid", thread.getKey());
+                generator.writeObjectFieldStart("args");
+                generator.writeStringField("name", thread.getValue());
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            for (Event event : events) {
+                event.write(generator);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos - startNanos);
+    }
+
+    /** A phase of a compilation, recorded in its trace when closed. */
+    public static final class Span implements AutoCloseable {
+        private final CompileTrace trace;
+        private final String name;
+        private final String argName;
+        private final String argValue;
+        private final long startNanos;
+
+        private Span(CompileTrace trace, String name, String argName, String argValue) {
+            this.trace = trace;
+            this.name = name;
+            this.argName = argName;
+            this.argValue = argValue;
+            this.startNanos = trace != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (trace == null) {
+                return;
+            }
+            Thread thread = Thread.currentThread();
+            trace.threadNames.putIfAbsent(thread.getId(), thread.getName());
+            trace.events.add(new Event(name, argName, argValue, thread.getId(),
+                    trace.micros(startNanos), trace.micros(System.nanoTime())));
+        }
+    }
+
+    private static final class Event {
+        private final String name;
+        private final String argName;
+        private final String argValue;
+        private final long tid;
+        private final long startMicros;
+        private final long endMicros;
+
+        Event(String name, String argName, String argValue, long tid, long startMicros, long endMicros) {
+            this.name = name;
+            this.argName = argName;
+            this.argValue = argValue;
+            this.tid = tid;
+            this.startMicros = startMicros;
+            this.endMicros = endMicros;
+        }
+
+        void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("name", name);
+            generator.writeStringField("cat", "conjure");
+            generator.writeStringField("ph", "X");
+            generator.writeNumberField("ts", startMicros);
+            generator.writeNumberField("dur", endMicros - startMicros);
+            generator.writeNumberField("pid", PID);
+            generator.writeNumberField("tid", tid);
+            if (argName != null) {
+                generator.writeObjectFieldStart("args");
+                generator.writeStringField(argName, argValue);
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
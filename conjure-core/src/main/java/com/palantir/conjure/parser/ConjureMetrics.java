@@ -16,45 +16,167 @@
 
 package com.palantir.conjure.parser;
 
+import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
 import com.palantir.conjure.parser.types.NamedTypesDefinition;
 import com.palantir.conjure.parser.types.TypesDefinition;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Records parser and compiler metrics in the registry of the current {@link CompileContext} if there is one, else in
+ * the {@link SharedMetricRegistries#tryGetDefault() default shared registry} if one is set, and otherwise does
+ * nothing; neither does it within a context that records no metrics.
+ * <p>
+ * Hot paths should record through {@link Counter} and {@link Histogram} handles created once via {@link #counter}
+ * and {@link #histogram(Class, String...)}, which resolve their metric once per registry: recording is a single
+ * branch when there is no registry to record in and does not allocate otherwise. {@link #incrementCounter} and
+ * {@link #histogram(int, Class, String...)} are for metrics whose names are only known at runtime.
+ */
 public final class ConjureMetrics {
 
     private ConjureMetrics() {}
 
+    /** Returns a handle for the counter named {@code MetricRegistry.name(clazz, names)}. */
+    public static Counter counter(Class<?> clazz, String... names) {
+        return new Counter(MetricRegistry.name(clazz, names));
+    }
+
+    /** Returns a handle for the histogram named {@code MetricRegistry.name(clazz, names)}. */
+    public static Histogram histogram(Class<?> clazz, String... names) {
+        return new Histogram(MetricRegistry.name(clazz, names));
+    }
+
     public static void incrementCounter(Class<?> clazz, String... names) {
-        Optional.ofNullable(SharedMetricRegistries.tryGetDefault()).ifPresent(metrics ->
-                metrics.counter(MetricRegistry.name(clazz, names)).inc());
+        MetricRegistry metrics = CompileContext.currentRegistryOrNull();
+        if (metrics != null) {
+            metrics.counter(MetricRegistry.name(clazz, names)).inc();
+        }
     }
 
     public static void histogram(int value, Class<?> clazz, String... names) {
-        Optional.ofNullable(SharedMetricRegistries.tryGetDefault()).ifPresent(metrics ->
-                metrics.histogram(MetricRegistry.name(clazz, names)).update(value));
+        MetricRegistry metrics = CompileContext.currentRegistryOrNull();
+        if (metrics != null) {
+            metrics.histogram(MetricRegistry.name(clazz, names)).update(value);
+        }
     }
 
+    private static final Counter CONJURE_IMPORTS = counter(TypesDefinition.class, "conjure-imports");
+    private static final Counter IMPORTS = counter(TypesDefinition.class, "imports");
+    private static final Counter SERVICES = counter(NamedTypesDefinition.class, "services");
+    private static final Counter TYPES = counter(NamedTypesDefinition.class, "types");
+    private static final Counter EMPTY_DEFAULT_CONJURE_PACKAGE =
+            counter(NamedTypesDefinition.class, "empty-default-conjure-package");
+    private static final Counter ERRORS = counter(NamedTypesDefinition.class, "errors");
+
     public static void recordMetrics(ConjureSourceFile definition) {
-        Optional.ofNullable(SharedMetricRegistries.tryGetDefault()).ifPresent(metrics -> {
-            metrics.counter(MetricRegistry.name(TypesDefinition.class, "conjure-imports"))
-                    .inc(definition.types().conjureImports().size());
+        CONJURE_IMPORTS.inc(definition.types().conjureImports().size());
+        IMPORTS.inc(definition.types().imports().size());
+        SERVICES.inc(definition.services().size());
+        TYPES.inc(definition.types().definitions().objects().size());
+        EMPTY_DEFAULT_CONJURE_PACKAGE.inc(definition.types().definitions().defaultConjurePackage().isPresent() ? 0 : 1);
+        ERRORS.inc(definition.types().definitions().errors().size());
+    }
+
+    private static final AtomicInteger HANDLES = new AtomicInteger();
+
+    /**
+     * A metric resolved once per {@link CompileContext}, and bound to the default registry it was last resolved in
+     * outside of any context. Bindings are immutable and published through a volatile field, so concurrent
+     * recorders at worst resolve the metric more than once, which the registry deduplicates.
+     */
+    private abstract static class Handle<M extends Metric> {
+        private final int index = HANDLES.getAndIncrement();
+        private final String name;
+        private volatile Binding<M> binding;
+
+        Handle(String name) {
+            this.name = name;
+        }
+
+        /** The metric in the registry to record in, or {@code null} if there is none. */
+        final M metric() {
+            CompileContext context = CompileContext.currentOrNull();
+            if (context != null) {
+                return context.recordsMetrics() ? contextMetric(context) : null;
+            }
+            MetricRegistry registry = SharedMetricRegistries.tryGetDefault();
+            if (registry == null) {
+                return null;
+            }
+            Binding<M> current = binding;
+            if (current == null || current.registry != registry) {
+                current = new Binding<>(registry, resolve(registry, name));
+                binding = current;
+            }
+            return current.metric;
+        }
 
-            metrics.counter(MetricRegistry.name(TypesDefinition.class, "imports"))
-                    .inc(definition.types().imports().size());
+        @SuppressWarnings("unchecked") // only this handle caches metrics at its index, all of type M
+        private M contextMetric(CompileContext context) {
+            M metric = (M) context.cachedMetric(index);
+            if (metric == null) {
+                metric = resolve(context.registry(), name);
+                context.cacheMetric(index, metric);
+            }
+            return metric;
+        }
 
-            metrics.counter(MetricRegistry.name(NamedTypesDefinition.class, "services"))
-                    .inc(definition.services().size());
+        abstract M resolve(MetricRegistry registry, String metricName);
+
+        @Override
+        public final String toString() {
+            return name;
+        }
+    }
+
+    private static final class Binding<M> {
+        private final MetricRegistry registry;
+        private final M metric;
+
+        Binding(MetricRegistry registry, M metric) {
+            this.registry = registry;
+            this.metric = metric;
+        }
+    }
+
+    public static final class Counter extends Handle<com.codahale.metrics.Counter> {
+        private Counter(String name) {
+            super(name);
+        }
+
+        public void inc() {
+            inc(1);
+        }
+
+        public void inc(long count) {
+            com.codahale.metrics.Counter counter = metric();
+            if (counter != null) {
+                counter.inc(count);
+            }
+        }
+
+        @Override
+        com.codahale.metrics.Counter resolve(MetricRegistry registry, String metricName) {
+            return registry.counter(metricName);
+        }
+    }
 
-            metrics.counter(MetricRegistry.name(NamedTypesDefinition.class, "types"))
-                    .inc(definition.types().definitions().objects().size());
+    public static final class Histogram extends Handle<com.codahale.metrics.Histogram> {
+        private Histogram(String name) {
+            super(name);
+        }
 
-            metrics.counter(MetricRegistry.name(NamedTypesDefinition.class, "empty-default-conjure-package"))
-                    .inc(definition.types().definitions().defaultConjurePackage().isPresent() ? 0 : 1);
+        public void update(int value) {
+            com.codahale.metrics.Histogram histogram = metric();
+            if (histogram != null) {
+                histogram.update(value);
+            }
+        }
 
-            metrics.counter(MetricRegistry.name(NamedTypesDefinition.class, "errors"))
-                    .inc(definition.types().definitions().errors().size());
-        });
+        @Override
+        com.codahale.metrics.Histogram resolve(MetricRegistry registry, String metricName) {
+            return registry.histogram(metricName);
+        }
     }
 }
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.conjure.parser.types.TypesDefinition;
 import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.parser.types.reference.ConjureImports;
@@ -30,15 +31,25 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public final class ConjureParser {
 
     private static final ObjectMapper MAPPER = createConjureParserObjectMapper();
+    private static final ConjureMetrics.Counter IMPORT_CACHE_HITS =
+            ConjureMetrics.counter(ConjureParser.class, "import-cache", "hit");
+    private static final ConjureMetrics.Counter IMPORT_CACHE_MISSES =
+            ConjureMetrics.counter(ConjureParser.class, "import-cache", "miss");
 
     public static class ImportNotFoundException extends RuntimeException {
         public ImportNotFoundException(File file) {
@@ -56,18 +67,61 @@ public final class ConjureParser {
 
     /** Deserializes a {@link ConjureSourceFile} from its YAML representation in the given file. */
     public static ConjureSourceFile parse(File file) {
-        RecursiveParser parser = new RecursiveParser();
+        RecursiveParser parser = new RecursiveParser(new HashMap<>(), Optional.empty());
         ConjureSourceFile conjureDef = parser.parse(file);
         ConjureMetrics.recordMetrics(conjureDef);
         return conjureDef;
     }
 
-    private static final class RecursiveParser {
-        private final Map<String, ConjureSourceFile> cache;
-        private final Set<String> currentDepthFirstPath;
+    /**
+     * Deserializes a {@link ConjureSourceFile} from each of the given files, in order. All files share a single import
+     * cache, so a file imported from several of the given files (or given directly) is read and deserialized once.
+     */
+    public static List<ConjureSourceFile> parse(Collection<File> files) {
+        return parse(files, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Like {@link #parse(Collection)}, but deserializes each of the given files in a separate task on the given
+     * executor, e.g., {@link java.util.concurrent.ForkJoinPool#commonPool}. The returned list is in the order of the
+     * given files, and a file imported by several tasks resolves to the same {@link ConjureSourceFile} instance in
+     * all of them.
+     */
+    public static List<ConjureSourceFile> parse(Collection<File> files, ExecutorService executor) {
+        return parse(files, executor, Optional.empty());
+    }
+
+    /**
+     * Like {@link #parse(Collection)}, but reuses the files retained by the given cache from previous calls as long as
+     * neither they nor any of their transitive imports have changed, and retains the newly parsed files.
+     */
+    public static List<ConjureSourceFile> parse(Collection<File> files, ParseCache parseCache) {
+        return parse(files, MoreExecutors.newDirectExecutorService(), Optional.of(parseCache));
+    }
 
-        private RecursiveParser() {
-            this.cache = new HashMap<>();
+    private static List<ConjureSourceFile> parse(
+            Collection<File> files, ExecutorService executor, Optional<ParseCache> parseCache) {
+        Map<Path, ConjureSourceFile> cache = new ConcurrentHashMap<>();
+        List<Future<ConjureSourceFile>> futures = files.stream()
+                .map(file -> executor.submit(CompileContext.propagate(() -> {
+                    ConjureSourceFile conjureDef = new RecursiveParser(cache, parseCache).parse(file);
+                    ConjureMetrics.recordMetrics(conjureDef);
+                    return conjureDef;
+                })))
+                .collect(Collectors.toList());
+        return futures.stream().map(CompileContext::getUnchecked).collect(Collectors.toList());
+    }
+
+    private static final class RecursiveParser {
+        // keyed on canonical paths so that symlinked or relative imports of the same file share an entry; may be
+        // shared between parsers running concurrently, in which case it must be thread-safe
+        private final Map<Path, ConjureSourceFile> cache;
+        private final Optional<ParseCache> parseCache;
+        private final Set<Path> currentDepthFirstPath;
+
+        private RecursiveParser(Map<Path, ConjureSourceFile> cache, Optional<ParseCache> parseCache) {
+            this.cache = cache;
+            this.parseCache = parseCache;
             this.currentDepthFirstPath = new LinkedHashSet<>(); // maintain order so we can print the cycle
         }
 
@@ -76,20 +130,39 @@ public final class ConjureParser {
             // and if the map gets resized during the recursion, some of the new nodes can be put in wrong
             // buckets. Therefore don't use computeIfAbsent in parse/parseInternal
             // See https://bugs.java.com/view_bug.do?bug_id=JDK-8071667
-            ConjureSourceFile result = cache.get(file.getAbsolutePath());
+            Path key = canonicalPath(file);
+            ConjureSourceFile result = cache.get(key);
             if (result != null) {
+                IMPORT_CACHE_HITS.inc();
                 return result;
             }
 
-            if (!currentDepthFirstPath.add(file.getAbsolutePath())) {
-                String cycle = currentDepthFirstPath.stream().reduce("", (left, right) -> left + " -> " + right)
-                        + " -> " + file.getAbsolutePath();
+            if (!currentDepthFirstPath.add(key)) {
+                String cycle = currentDepthFirstPath.stream().map(Path::toString)
+                        .reduce("", (left, right) -> left + " -> " + right) + " -> " + key;
                 throw new CyclicImportException(cycle);
             }
 
-            result = parseInternal(file);
-            cache.put(file.getAbsolutePath(), result);
-            return result;
+            IMPORT_CACHE_MISSES.inc();
+            result = parseCache.isPresent()
+                    ? parseCache.get().parse(file, key, this::parse, this::parseInternal)
+                    : parseInternal(file);
+            currentDepthFirstPath.remove(key);
+            // a concurrent parser may have cached this file in the meantime; converge on its instance
+            ConjureSourceFile existing = cache.putIfAbsent(key, result);
+            return existing != null ? existing : result;
+        }
+
+        private static Path canonicalPath(File file) {
+            if (!Files.exists(file.toPath())) {
+                throw new ImportNotFoundException(file);
+            }
+
+            try {
+                return file.toPath().toRealPath();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to resolve canonical path of " + file.getAbsolutePath(), e);
+            }
         }
 
         private ConjureSourceFile parseInternal(File file) {
@@ -97,14 +170,15 @@ public final class ConjureParser {
             // but it's better than the previous implementation where ConjureImports types were passed around all
             // over the place. Main obstacle to simpler parsing is that Jackson parsers don't have context, i.e., it's
             // impossible to know the base-path w.r.t. which the imported file is declared.
-            if (!Files.exists(file.toPath())) {
-                throw new ImportNotFoundException(file);
-            }
-
             try {
-                ConjureSourceFile definition = MAPPER.readValue(file, ConjureSourceFile.class);
-                Map<Namespace, ConjureImports> imports =
-                        parseImports(definition.types().conjureImports(), file.toPath().getParent());
+                ConjureSourceFile definition;
+                try (CompileTrace.Span span = CompileTrace.span("read YAML", "file", file)) {
+                    definition = MAPPER.readValue(file, ConjureSourceFile.class);
+                }
+                Map<Namespace, ConjureImports> imports;
+                try (CompileTrace.Span span = CompileTrace.span("resolve imports", "file", file)) {
+                    imports = parseImports(definition.types().conjureImports(), file.toPath().getParent());
+                }
                 return ConjureSourceFile.builder()
                         .from(definition)
                         .types(TypesDefinition.builder()
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Retains parsed {@link ConjureSourceFile}s across calls to {@link ConjureParser#parse(java.util.Collection,
+ * ParseCache)}, e.g., in a long-running process that compiles the same definitions repeatedly. A cached file is
+ * reused only if it has the same size and modification time as when it was parsed, and if each of its imports still
+ * resolves to the very instance it resolved to back then; hence a change to a file invalidates all files importing
+ * it, transitively. Safe for concurrent use.
+ */
+public final class ParseCache {
+    private static final ConjureMetrics.Counter HITS = ConjureMetrics.counter(ParseCache.class, "hit");
+    private static final ConjureMetrics.Counter MISSES = ConjureMetrics.counter(ParseCache.class, "miss");
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached parse of the given file if it is still valid, or else parses it with {@code fileParser} and
+     * caches the result. The imports of a cached file are resolved with {@code importParser} to check their validity.
+     */
+    ConjureSourceFile parse(
+            File file,
+            Path canonicalPath,
+            Function<File, ConjureSourceFile> importParser,
+            Function<File, ConjureSourceFile> fileParser) {
+        // stamp the file before reading it, so that a concurrent modification invalidates the entry
+        FileStamp stamp = FileStamp.of(canonicalPath);
+        Entry entry = entries.get(canonicalPath);
+        if (entry != null && entry.isValid(stamp, importParser)) {
+            HITS.inc();
+            return entry.definition;
+        }
+
+        MISSES.inc();
+        ConjureSourceFile definition = fileParser.apply(file);
+        entries.put(canonicalPath, new Entry(stamp, file.toPath().getParent(), definition));
+        return definition;
+    }
+
+    /** Returns the canonical paths of all cached files, including those only parsed as imports. */
+    public Set<Path> files() {
+        return ImmutableSet.copyOf(entries.keySet());
+    }
+
+    /**
+     * Removes the entry of the given file, or of all files beneath it if it is a directory, e.g., once it has been
+     * deleted or renamed. The path need not exist anymore: it is matched against the canonical paths of the cached
+     * files by canonicalizing its closest existing ancestor.
+     */
+    public void invalidate(Path path) {
+        Path canonicalPath = canonicalize(path);
+        entries.keySet().removeIf(file -> file.startsWith(canonicalPath));
+    }
+
+    /** Removes all entries, e.g., to release memory. */
+    public void clear() {
+        entries.clear();
+    }
+
+    private static Path canonicalize(Path path) {
+        Path absolutePath = path.toAbsolutePath().normalize();
+        Path existingAncestor = absolutePath;
+        while (existingAncestor != null && !Files.exists(existingAncestor)) {
+            existingAncestor = existingAncestor.getParent();
+        }
+        if (existingAncestor == null) {
+            return absolutePath;
+        }
+        try {
+            return existingAncestor.toRealPath().resolve(existingAncestor.relativize(absolutePath));
+        } catch (IOException e) {
+            return absolutePath;
+        }
+    }
+
+    private static final class Entry {
+        private final FileStamp stamp;
+        private final Path baseDir;
+        private final ConjureSourceFile definition;
+
+        Entry(FileStamp stamp, Path baseDir, ConjureSourceFile definition) {
+            this.stamp = stamp;
+            this.baseDir = baseDir;
+            this.definition = definition;
+        }
+
+        boolean isValid(FileStamp currentStamp, Function<File, ConjureSourceFile> importParser) {
+            if (!stamp.equals(currentStamp)) {
+                return false;
+            }
+            for (ConjureImports conjureImport : definition.types().conjureImports().values()) {
+                if (importParser.apply(baseDir.resolve(conjureImport.file()).toFile()) != conjureImport.conjure()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class FileStamp {
+        private final FileTime lastModified;
+        private final long size;
+
+        private FileStamp(FileTime lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        static FileStamp of(Path path) {
+            try {
+                return new FileStamp(Files.getLastModifiedTime(path), Files.size(path));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read attributes of " + path, e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            FileStamp that = (FileStamp) other;
+            return size == that.size && lastModified.equals(that.lastModified);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size);
+        }
+    }
+}
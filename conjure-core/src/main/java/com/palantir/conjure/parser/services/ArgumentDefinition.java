@@ -98,6 +98,11 @@ public interface ArgumentDefinition {
 
     // solve Jackson sad-times for multiple parser
     class ArgumentDefinitionDeserializer extends JsonDeserializer<ArgumentDefinition> {
+        private static final ConjureMetrics.Counter ONELINE =
+                ConjureMetrics.counter(ArgumentDefinition.class, "oneline");
+        private static final ConjureMetrics.Counter VERBOSE =
+                ConjureMetrics.counter(ArgumentDefinition.class, "verbose");
+
         @SuppressWarnings("deprecation")
         @Override
         public ArgumentDefinition deserialize(JsonParser parser, DeserializationContext context)
@@ -106,14 +111,14 @@ public interface ArgumentDefinition {
             String candidate = parser.getValueAsString();
             if (candidate != null) {
                 try {
-                    ConjureMetrics.incrementCounter(ArgumentDefinition.class, "oneline");
+                    ONELINE.inc();
                     return of(ConjureType.fromString(candidate));
                 } catch (ParseException e) {
                     throw new RuntimeException(e);
                 }
             }
 
-            ConjureMetrics.incrementCounter(ArgumentDefinition.class, "verbose");
+            VERBOSE.inc();
             return ImmutableArgumentDefinition.fromJson(
                     parser.readValueAs(ImmutableArgumentDefinition.Json.class));
         }
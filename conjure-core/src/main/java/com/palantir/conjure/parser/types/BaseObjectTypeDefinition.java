@@ -44,30 +44,41 @@ public interface BaseObjectTypeDefinition {
     <T> T visit(TypeDefinitionVisitor<T> visitor);
 
     class BaseObjectTypeDefinitionDeserializer extends JsonDeserializer<BaseObjectTypeDefinition> {
+        private static final ConjureMetrics.Counter OBJECTS = ConjureMetrics.counter(ObjectTypeDefinition.class);
+        private static final ConjureMetrics.Histogram OBJECT_FIELDS =
+                ConjureMetrics.histogram(ObjectTypeDefinition.class, "fields");
+        private static final ConjureMetrics.Counter ENUMS = ConjureMetrics.counter(EnumTypeDefinition.class);
+        private static final ConjureMetrics.Histogram ENUM_VALUES =
+                ConjureMetrics.histogram(EnumTypeDefinition.class, "values");
+        private static final ConjureMetrics.Counter ALIASES = ConjureMetrics.counter(AliasTypeDefinition.class);
+        private static final ConjureMetrics.Counter UNIONS = ConjureMetrics.counter(UnionTypeDefinition.class);
+        private static final ConjureMetrics.Histogram UNION_VARIANTS =
+                ConjureMetrics.histogram(UnionTypeDefinition.class, "variants");
+
         @Override
         public BaseObjectTypeDefinition deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
             TreeNode tree = parser.readValueAsTree();
             if (tree.get("fields") != null) {
                 ObjectTypeDefinition objectDef = ObjectTypeDefinition.fromJson(parser, tree);
-                ConjureMetrics.incrementCounter(ObjectTypeDefinition.class);
-                ConjureMetrics.histogram(objectDef.fields().size(), ObjectTypeDefinition.class, "fields");
+                OBJECTS.inc();
+                OBJECT_FIELDS.update(objectDef.fields().size());
                 return objectDef;
             } else if (tree.get("values") != null) {
                 EnumTypeDefinition enumDef = EnumTypeDefinition.fromJson(parser, tree);
-                ConjureMetrics.incrementCounter(EnumTypeDefinition.class);
-                ConjureMetrics.histogram(enumDef.values().size(), EnumTypeDefinition.class, "values");
+                ENUMS.inc();
+                ENUM_VALUES.update(enumDef.values().size());
                 return enumDef;
             } else if (tree.get("alias") != null) {
                 AliasTypeDefinition aliasDef = AliasTypeDefinition.fromJson(parser, tree);
-                ConjureMetrics.incrementCounter(AliasTypeDefinition.class);
+                ALIASES.inc();
                 ConjureMetrics.incrementCounter(AliasTypeDefinition.class,
                         "inner",
                         aliasDef.alias().getClass().getSimpleName());
                 return aliasDef;
             } else if (tree.get("union") != null) {
                 UnionTypeDefinition unionDef = UnionTypeDefinition.fromJson(parser, tree);
-                ConjureMetrics.incrementCounter(UnionTypeDefinition.class);
-                ConjureMetrics.histogram(unionDef.union().size(), UnionTypeDefinition.class, "variants");
+                UNIONS.inc();
+                UNION_VARIANTS.update(unionDef.union().size());
                 return unionDef;
             } else if (tree.get("namespace") != null) {
                 return ErrorTypeDefinition.fromJson(parser, tree);
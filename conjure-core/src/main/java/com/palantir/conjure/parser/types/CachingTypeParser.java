@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser.types;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.palantir.conjure.parser.ConjureMetrics;
+import com.palantir.parsec.ParseException;
+
+/**
+ * Interns the results of {@link TypeParser#parse(String)} so that repeated occurrences of a type expression, e.g.,
+ * {@code optional<string>}, are parsed once and share a single immutable {@link ConjureType} instance. The cache is
+ * bounded and safe for concurrent use; expressions that fail to parse are not cached. Cached results record the same
+ * per-type metrics as parsing them, so those keep counting every occurrence of a type.
+ */
+final class CachingTypeParser {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final ConjureMetrics.Counter HITS = ConjureMetrics.counter(ConjureType.class, "cache", "hit");
+    private static final ConjureMetrics.Counter MISSES =
+            ConjureMetrics.counter(ConjureType.class, "cache", "miss");
+    private static final Cache<String, ConjureType> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    private CachingTypeParser() {}
+
+    static ConjureType parse(String input) throws ParseException {
+        ConjureType result = CACHE.getIfPresent(input);
+        if (result != null) {
+            HITS.inc();
+            TypeParser.recordMetrics(result);
+            return result;
+        }
+
+        // don't use Cache#get(key, loader), which would wrap ParseExceptions
+        MISSES.inc();
+        result = TypeParser.INSTANCE.parse(input);
+        ConjureType existing = CACHE.asMap().putIfAbsent(input, result);
+        return existing != null ? existing : result;
+    }
+}
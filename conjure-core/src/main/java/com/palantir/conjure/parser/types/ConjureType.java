@@ -25,7 +25,10 @@ public interface ConjureType {
 
     <T> T visit(ConjureTypeVisitor<T> visitor);
 
+    /**
+     * Parses the given type expression. Equal expressions yield the same instance, see {@link CachingTypeParser}.
+     */
     static ConjureType fromString(String value) throws ParseException {
-        return TypeParser.INSTANCE.parse(value);
+        return CachingTypeParser.parse(value);
     }
 }
@@ -26,204 +26,290 @@ import com.palantir.conjure.parser.types.collect.OptionalType;
 import com.palantir.conjure.parser.types.collect.SetType;
 import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.parser.types.names.TypeName;
+import com.palantir.conjure.parser.types.primitive.PrimitiveType;
 import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
 import com.palantir.conjure.parser.types.reference.LocalReferenceType;
 import com.palantir.parsec.ParseException;
 import com.palantir.parsec.Parser;
 import com.palantir.parsec.ParserState;
-import com.palantir.parsec.Parsers;
 import com.palantir.parsec.StringParserState;
-import com.palantir.parsec.parsers.ExpectationResult;
-import com.palantir.parsec.parsers.KeyValueParser;
-import com.palantir.parsec.parsers.KeyValueParser.KeyValue;
-import com.palantir.parsec.parsers.RawStringParser;
 
+/**
+ * Parses type expressions such as {@code map<string, optional<bar.Foo>>} in a single recursive-descent pass over the
+ * input, without backtracking or allocating intermediate parsers. Alternatives are tried in the order map, list, set,
+ * optional, any, binary, datetime, foreign reference, local reference, and a keyword matches as soon as the input
+ * starts with it.
+ */
 public enum TypeParser implements Parser<ConjureType> {
     INSTANCE;
 
+    private static final ConjureMetrics.Counter LIST = ConjureMetrics.counter(ListType.class);
+    private static final ConjureMetrics.Counter SET = ConjureMetrics.counter(SetType.class);
+    private static final ConjureMetrics.Counter OPTIONAL = ConjureMetrics.counter(OptionalType.class);
+    private static final ConjureMetrics.Counter ANY = ConjureMetrics.counter(AnyType.class);
+    private static final ConjureMetrics.Counter BINARY = ConjureMetrics.counter(BinaryType.class);
+    private static final ConjureMetrics.Counter DATETIME = ConjureMetrics.counter(DateTimeType.class);
+    private static final ConjureMetrics.Counter FOREIGN_REFERENCE =
+            ConjureMetrics.counter(ForeignReferenceType.class);
+    private static final ConjureMetrics.Counter LOCAL_REFERENCE = ConjureMetrics.counter(LocalReferenceType.class);
+    private static final ConjureMetrics.Counter MAP = ConjureMetrics.counter(MapType.class);
+
+    /** Parses the given type expression, which may be followed by whitespace only. */
     public ConjureType parse(String input) throws ParseException {
-        ParserState inputParserState = new StringParserState(input);
-        ConjureType resultType = Parsers.eof(typeParser()).parse(inputParserState);
-        if (resultType == null) {
-            throw new ParseException(input, inputParserState);
+        Cursor cursor = new Cursor(input);
+        ConjureType resultType = cursor.typeOrNull();
+        cursor.skipWhitespace();
+        if (resultType == null || !cursor.atEnd()) {
+            throw new ParseException(input, cursor.state());
         }
-        return parse(new StringParserState(input));
+        return resultType;
+    }
+
+    /**
+     * Records the metrics that parsing the given type records, e.g., for a type that {@link CachingTypeParser} returns
+     * without parsing it again, such that the per-type counters count every occurrence of a type expression.
+     */
+    static void recordMetrics(ConjureType type) {
+        type.visit(MetricsRecorder.INSTANCE);
     }
 
+    /**
+     * Parses a type expression at the current position of the given state and leaves the state positioned right
+     * after it; returns null if no type expression starts at the current position.
+     */
     @Override
     public ConjureType parse(ParserState input) throws ParseException {
-        return typeParser().parse(input);
-    }
+        input.mark();
+        StringBuilder remaining = new StringBuilder();
+        for (int curr = input.curr(); curr != -1; curr = input.next()) {
+            remaining.append((char) curr);
+        }
+        input.rewind();
 
-    private Parser<ConjureType> typeParser() {
-        return Parsers.or(
-                MapTypeParser.INSTANCE,
-                ListTypeParser.INSTANCE,
-                SetTypeParser.INSTANCE,
-                OptionalTypeParser.INSTANCE,
-                TypeFromString.of("any", AnyType.of(), AnyType.class),
-                TypeFromString.of("binary", BinaryType.of(), BinaryType.class),
-                TypeFromString.of("datetime", DateTimeType.of(), DateTimeType.class),
-                ForeignReferenceTypeParser.INSTANCE,
-                TypeReferenceParser.INSTANCE);
+        Cursor cursor = new Cursor(remaining.toString());
+        ConjureType resultType = cursor.typeOrNull();
+        for (int i = 0; i < cursor.position; i++) {
+            input.next();
+        }
+        return resultType;
     }
 
-    private enum TypeReferenceParser implements Parser<LocalReferenceType> {
-        INSTANCE;
+    private static final class Cursor {
+        private final String input;
+        private int position = 0;
 
-        public static final Parser<String> REF_PARSER = new RawStringParser(
-                new RawStringParser.AllowableCharacters() {
-                    @Override
-                    public boolean isAllowed(char character) {
-                        return Character.isJavaIdentifierPart(character);
-                    }
+        Cursor(String input) {
+            this.input = input;
+        }
 
-                    @Override
-                    public String getDescription() {
-                        return "Character is an allowable Java identifier character";
-                    }
-                });
+        ConjureType typeOrNull() throws ParseException {
+            if (consume("map")) {
+                return mapType();
+            } else if (consume("list")) {
+                ConjureType itemType = itemType();
+                LIST.inc();
+                return ListType.of(itemType);
+            } else if (consume("set")) {
+                ConjureType itemType = itemType();
+                SET.inc();
+                return SetType.of(itemType);
+            } else if (consume("optional")) {
+                ConjureType itemType = itemType();
+                OPTIONAL.inc();
+                return OptionalType.of(itemType);
+            } else if (consume("any")) {
+                ANY.inc();
+                return AnyType.of();
+            } else if (consume("binary")) {
+                BINARY.inc();
+                return BinaryType.of();
+            } else if (consume("datetime")) {
+                DATETIME.inc();
+                return DateTimeType.of();
+            }
+            return referenceTypeOrNull();
+        }
 
-        @Override
-        public LocalReferenceType parse(ParserState input) throws ParseException {
-            input.mark();
-            String typeReference = REF_PARSER.parse(input);
-            if (typeReference == null) {
-                input.rewind();
+        private ConjureType referenceTypeOrNull() {
+            int start = position;
+            int namespaceEnd = start;
+            while (namespaceEnd < input.length() && isNamespaceCharacter(input.charAt(namespaceEnd))) {
+                namespaceEnd++;
+            }
+
+            // TODO(qchen): Change to ExternalType?
+            if (namespaceEnd < input.length() && input.charAt(namespaceEnd) == '.') {
+                position = namespaceEnd + 1;
+                String typeReference = identifier();
+                FOREIGN_REFERENCE.inc();
+                return ForeignReferenceType.of(
+                        Namespace.of(input.substring(start, namespaceEnd)), TypeName.of(typeReference));
+            }
+
+            String typeReference = identifier();
+            if (typeReference.isEmpty()) {
                 return null;
             }
-            input.release();
-            ConjureMetrics.incrementCounter(LocalReferenceType.class);
+            LOCAL_REFERENCE.inc();
             return LocalReferenceType.of(TypeName.of(typeReference));
         }
-    }
-
-    // TODO(qchen): Change to ExternalType?
-    private enum ForeignReferenceTypeParser implements Parser<ForeignReferenceType> {
-        INSTANCE;
 
-        public static final Parser<String> NAMESPACE_PARSER = new RawStringParser(
-                new RawStringParser.AllowableCharacters() {
-                    @Override
-                    public boolean isAllowed(char character) {
-                        return ('a' <= character && character <= 'z')
-                                || ('A' <= character && character <= 'Z');
+        private MapType mapType() throws ParseException {
+            expect('<', "Expected startToken");
+            skipWhitespace();
+            ConjureType keyType = typeOrNull();
+            ConjureType valueType = null;
+            if (keyType != null) {
+                int afterKey = position;
+                skipWhitespace();
+                if (consume(",")) {
+                    skipWhitespace();
+                    valueType = typeOrNull();
+                    if (valueType == null) {
+                        throw error("Found key '" + keyType + "' without associated value.");
                     }
+                } else {
+                    position = afterKey;
+                }
+            }
+            expect('>', "Expected endToken");
+            if (valueType == null) {
+                throw error("Expected key-value pair");
+            }
 
-                    @Override
-                    public String getDescription() {
-                        return "Character is one of [a-zA-Z]";
-                    }
-                });
+            MAP.inc();
+            return MapType.of(keyType, valueType);
+        }
 
-        @Override
-        public ForeignReferenceType parse(ParserState input) throws ParseException {
-            String namespace = NAMESPACE_PARSER.parse(input);
-            if (Parsers.nullOrUnexpected(Parsers.expect(".").parse(input))) {
-                return null;
+        private ConjureType itemType() throws ParseException {
+            expect('<', "Expected startToken");
+            skipWhitespace();
+            ConjureType itemType = typeOrNull();
+            expect('>', "Expected endToken");
+            if (itemType == null) {
+                throw error("Expected type");
             }
-            String ref = TypeReferenceParser.REF_PARSER.parse(input);
-            ConjureMetrics.incrementCounter(ForeignReferenceType.class);
-            return ForeignReferenceType.of(Namespace.of(namespace), TypeName.of(ref));
+            return itemType;
         }
-    }
 
-    private enum ListTypeParser implements Parser<ListType> {
-        INSTANCE;
+        private String identifier() {
+            int start = position;
+            while (position < input.length() && Character.isJavaIdentifierPart(input.charAt(position))) {
+                position++;
+            }
+            return input.substring(start, position);
+        }
 
-        @Override
-        public ListType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("list").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
+        private boolean consume(String token) {
+            if (input.startsWith(token, position)) {
+                position += token.length();
+                return true;
             }
+            return false;
+        }
 
-            ConjureType itemType = Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            ConjureMetrics.incrementCounter(ListType.class);
-            return ListType.of(itemType);
+        private void expect(char token, String message) throws ParseException {
+            skipWhitespace();
+            if (atEnd() || input.charAt(position) != token) {
+                throw error(message);
+            }
+            position++;
         }
-    }
 
-    private enum SetTypeParser implements Parser<SetType> {
-        INSTANCE;
+        void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
 
-        @Override
-        public SetType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("set").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
+        boolean atEnd() {
+            return position >= input.length();
+        }
+
+        ParserState state() {
+            ParserState state = new StringParserState(input);
+            for (int i = 0; i < position; i++) {
+                state.next();
             }
+            return state;
+        }
 
-            ConjureType itemType = Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            ConjureMetrics.incrementCounter(SetType.class);
-            return SetType.of(itemType);
+        private ParseException error(String message) {
+            return new ParseException(message, state());
+        }
+
+        private static boolean isNamespaceCharacter(char character) {
+            return ('a' <= character && character <= 'z') || ('A' <= character && character <= 'Z');
         }
     }
 
-    private enum OptionalTypeParser implements Parser<OptionalType> {
+    private enum MetricsRecorder implements ConjureTypeVisitor<Void> {
         INSTANCE;
 
         @Override
-        public OptionalType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("optional").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
-
-            ConjureType itemType = Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            ConjureMetrics.incrementCounter(OptionalType.class);
-            return OptionalType.of(itemType);
+        public Void visitAny(AnyType type) {
+            ANY.inc();
+            return null;
         }
-    }
 
-    private enum MapTypeParser implements Parser<MapType> {
-        INSTANCE;
+        @Override
+        public Void visitList(ListType type) {
+            type.itemType().visit(this);
+            LIST.inc();
+            return null;
+        }
 
         @Override
-        public MapType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("map").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
+        public Void visitMap(MapType type) {
+            type.keyType().visit(this);
+            type.valueType().visit(this);
+            MAP.inc();
+            return null;
+        }
 
-            Parser<KeyValue<ConjureType, ConjureType>> kv = Parsers.liberalBetween(
-                    "<",
-                    new KeyValueParser<>(
-                            Parsers.whitespace(TypeParser.INSTANCE),
-                            Parsers.whitespace(Parsers.expect(",")),
-                            Parsers.whitespace(TypeParser.INSTANCE)),
-                    ">");
+        @Override
+        public Void visitOptional(OptionalType type) {
+            type.itemType().visit(this);
+            OPTIONAL.inc();
+            return null;
+        }
 
-            KeyValue<ConjureType, ConjureType> types = kv.parse(input);
-            ConjureMetrics.incrementCounter(MapType.class);
-            return MapType.of(types.getKey(), types.getValue());
+        @Override
+        public Void visitPrimitive(PrimitiveType type) {
+            // primitives are parsed as local references
+            LOCAL_REFERENCE.inc();
+            return null;
         }
-    }
 
-    private static final class TypeFromString<T> implements Parser<T> {
-        private final String type;
-        private final T instance;
-        private final Class<T> metric;
+        @Override
+        public Void visitLocalReference(LocalReferenceType type) {
+            LOCAL_REFERENCE.inc();
+            return null;
+        }
 
-        TypeFromString(String type, T instance, Class<T> metric) {
-            this.type = type;
-            this.instance = instance;
-            this.metric = metric;
+        @Override
+        public Void visitForeignReference(ForeignReferenceType type) {
+            FOREIGN_REFERENCE.inc();
+            return null;
         }
 
         @Override
-        public T parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect(type).parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
+        public Void visitSet(SetType type) {
+            type.itemType().visit(this);
+            SET.inc();
+            return null;
+        }
 
-            ConjureMetrics.incrementCounter(metric);
-            return instance;
+        @Override
+        public Void visitBinary(BinaryType type) {
+            BINARY.inc();
+            return null;
         }
 
-        public static <T> TypeFromString<T> of(String type, T instance, Class<T> metric) {
-            return new TypeFromString<>(type, instance, metric);
+        @Override
+        public Void visitDateTime(DateTimeType type) {
+            DATETIME.inc();
+            return null;
         }
     }
 }
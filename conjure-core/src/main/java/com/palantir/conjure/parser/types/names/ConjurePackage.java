@@ -22,9 +22,9 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.defs.ConjureImmutablesStyle;
 import java.util.List;
-import java.util.regex.Pattern;
 import org.immutables.value.Value;
 
 /**
@@ -36,6 +36,8 @@ import org.immutables.value.Value;
 @ConjureImmutablesStyle
 public abstract class ConjurePackage {
 
+    private static final String PACKAGE_PATTERN = "^([a-z][a-z0-9]+(\\.[a-z][a-z0-9]*)*)?$";
+
     @JsonValue
     public abstract String name();
 
@@ -47,10 +49,8 @@ public abstract class ConjurePackage {
 
     @Value.Check
     protected final void check() {
-        // TODO(rfink): NPE when the pattern is static !?!?
-        Pattern validPackage = Pattern.compile("^([a-z][a-z0-9]+(\\.[a-z][a-z0-9]*)*)?$");
-        Preconditions.checkArgument(validPackage.matcher(name()).matches(),
-                "Conjure package names must match pattern %s: %s", validPackage.pattern(), name());
+        Preconditions.checkArgument(NameScanners.isPackage(name()),
+                "Conjure package names must match pattern %s: %s", PACKAGE_PATTERN, name());
     }
 
     @JsonCreator
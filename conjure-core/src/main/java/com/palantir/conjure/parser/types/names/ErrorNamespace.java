@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.defs.ConjureImmutablesStyle;
 import com.palantir.conjure.parser.types.complex.ErrorTypeDefinition;
 import java.util.regex.Pattern;
@@ -40,7 +41,7 @@ public abstract class ErrorNamespace {
 
     @Value.Check
     protected final void check() {
-        Preconditions.checkArgument(UPPER_CAMEL_CASE.matcher(name()).matches(),
+        Preconditions.checkArgument(NameScanners.isUpperCamelCase(name()),
                 "Namespace for errors must match pattern %s: %s", UPPER_CAMEL_CASE, name());
     }
 
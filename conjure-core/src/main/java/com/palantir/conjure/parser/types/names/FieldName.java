@@ -20,9 +20,11 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.defs.ConjureImmutablesStyle;
 import com.palantir.conjure.parser.types.complex.ObjectTypeDefinition;
 import java.util.Arrays;
+import java.util.Optional;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.immutables.value.Value;
@@ -106,31 +108,30 @@ public abstract class FieldName {
     @JsonValue
     public abstract String name();
 
+    /** The case of this field name, detected once on construction, or empty if the name is invalid. */
+    @Value.Derived
+    @Value.Auxiliary
+    Optional<Case> detectedCase() {
+        return NameScanners.fieldNameCase(name()).map(nameCase -> Case.valueOf(nameCase.name()));
+    }
+
     @Value.Check
     @SuppressWarnings("Slf4jLogsafeArgs")
     protected final void check() {
-        Preconditions.checkArgument(
-                Case.LOWER_CAMEL_CASE.pattern.matcher(name()).matches()
-                        || Case.KEBAB_CASE.pattern.matcher(name()).matches()
-                        || Case.SNAKE_CASE.pattern.matcher(name()).matches(),
+        Preconditions.checkArgument(detectedCase().isPresent(),
                 "FieldName \"%s\" must follow one of the following patterns: %s",
                 name(), Arrays.toString(Case.values()));
 
-        if (!Case.LOWER_CAMEL_CASE.pattern.matcher(name()).matches()) {
+        if (detectedCase().get() != Case.LOWER_CAMEL_CASE) {
             log.warn("{} should be specified in lowerCamelCase. kebab-case and snake_case are supported for "
                     + "legacy endpoints only: {}", FieldName.class, name());
         }
     }
 
     /** Returns the case of this field name. */
-    @Value.Lazy
-    protected Case nameCase() {
-        for (Case nameCase : Case.values()) {
-            if (nameCase.pattern.matcher(name()).matches()) {
-                return nameCase;
-            }
-        }
-        throw new IllegalStateException("Could not find case for FieldName, this is a bug: " + name());
+    protected final Case nameCase() {
+        return detectedCase().orElseThrow(() -> new IllegalStateException(
+                "Could not find case for FieldName, this is a bug: " + name()));
     }
 
     @JsonCreator
@@ -19,6 +19,7 @@ package com.palantir.conjure.parser.types.names;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.base.Preconditions;
+import com.palantir.conjure.NameScanners;
 import com.palantir.conjure.defs.ConjureImmutablesStyle;
 import com.palantir.conjure.parser.types.TypesDefinition;
 import java.util.regex.Pattern;
@@ -39,7 +40,7 @@ public abstract class Namespace {
     @Value.Check
     protected final void check() {
         Preconditions.checkArgument(
-                NAMESPACE_PATTERN.matcher(name()).matches(),
+                NameScanners.isNamespace(name()),
                 "Namespaces must match pattern %s: %s", NAMESPACE_PATTERN, name());
     }
 
@@ -17,15 +17,25 @@
 package com.palantir.conjure.defs;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.parser.CompileContext;
 import com.palantir.conjure.parser.ConjureParser;
 import com.palantir.conjure.spec.ConjureDefinition;
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Ignore;
 import org.junit.Test;
 
 public class ConjureDefTest {
+    private static final String IMPORTED_TYPES_HITS =
+            MetricRegistry.name(ConjureParserUtils.class, "imported-types", "hit");
+    private static final String IMPORTED_TYPES_MISSES =
+            MetricRegistry.name(ConjureParserUtils.class, "imported-types", "miss");
 
     @Test
     public void resolvesImportedAliases() {
@@ -34,6 +44,43 @@ public class ConjureDefTest {
         assertThat(conjureDefinition.getTypes()).hasSize(1);
     }
 
+    @Test
+    public void resolvesAliasesImportedByMultipleFiles() {
+        CompileContext context = CompileContext.create();
+        ConjureDefinition conjureDefinition = context.call(() -> ConjureParserUtils.parseConjureDef(
+                ConjureParser.parse(ImmutableList.of(
+                        new File("src/test/resources/example-conjure-imports.yml"),
+                        new File("src/test/resources/example-conjure-shared-imports.yml")))));
+        assertThat(conjureDefinition.getTypes()).hasSize(2);
+        assertThat(conjureDefinition.getServices()).hasSize(2);
+
+        // the imported types of both files and of the shared import are each resolved once, the latter's when the
+        // first file is translated, and reused for the second file
+        assertThat(context.registry().counter(IMPORTED_TYPES_MISSES).getCount()).isEqualTo(3);
+        assertThat(context.registry().counter(IMPORTED_TYPES_HITS).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectsInvalidImportsOfFilesWithoutServices() {
+        assertThatThrownBy(() -> ConjureParserUtils.parseConjureDef(ConjureParser.parse(ImmutableList.of(
+                new File("src/test/resources/example-conjure-invalid-imports.yml")))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Unknown LocalReferenceType: ");
+    }
+
+    @Test
+    public void parallelParseMatchesSequentialParse() {
+        List<File> files = ImmutableList.of(
+                new File("src/test/resources/example-conjure-imports.yml"),
+                new File("src/test/resources/example-conjure-shared-imports.yml"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(Conjure.parse(files, executor)).isEqualTo(Conjure.parse(files));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     // Test currently fails as it attempts to parse a TypeScript package name as a java package
     @Test
     @Ignore
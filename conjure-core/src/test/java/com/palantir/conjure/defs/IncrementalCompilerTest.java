@@ -0,0 +1,136 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalCompilerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void recompilesFilesWithChangedImports() throws IOException {
+        File common = temporaryFolder.newFile("common.yml");
+        File importing = temporaryFolder.newFile("importing.yml");
+        File unrelated = temporaryFolder.newFile("unrelated.yml");
+        write(common, "Common", "alias: string");
+        write(importing, "Importing", "alias: common.Common", "  conjure-imports:\n    common: common.yml\n");
+        write(unrelated, "Unrelated", "alias: string");
+        List<File> files = ImmutableList.of(importing, unrelated);
+        Path cacheDir = temporaryFolder.getRoot().toPath().resolve("cache");
+
+        assertThat(IncrementalCompiler.compile(files, cacheDir)).isEqualTo(Conjure.parse(files));
+
+        // replace all cached translations so that we can tell which files are translated again
+        try (Stream<Path> fragments = Files.list(cacheDir.resolve("fragments"))) {
+            for (Path fragment : fragments.collect(Collectors.toList())) {
+                Files.write(fragment, "{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        write(common, "Common", "alias: integer");
+
+        ConjureDefinition definition = IncrementalCompiler.compile(files, cacheDir);
+        assertThat(definition.getTypes().stream().map(IncrementalCompilerTest::name))
+                .containsExactly("Importing");
+    }
+
+    @Test
+    public void ignoresPartiallyWrittenManifest() throws IOException {
+        File file = temporaryFolder.newFile("file.yml");
+        write(file, "Type", "alias: string");
+        List<File> files = ImmutableList.of(file);
+        Path cacheDir = temporaryFolder.getRoot().toPath().resolve("cache");
+        IncrementalCompiler.compile(files, cacheDir);
+
+        Path manifest = cacheDir.resolve("manifest.json");
+        byte[] content = Files.readAllBytes(manifest);
+        Files.write(manifest, Arrays.copyOf(content, content.length / 2));
+
+        assertThat(IncrementalCompiler.compile(files, cacheDir)).isEqualTo(Conjure.parse(files));
+        assertThat(Files.readAllBytes(manifest)).isEqualTo(content);
+    }
+
+    @Test
+    public void replacesTranslationsOfChangedFiles() throws IOException {
+        File file = temporaryFolder.newFile("file.yml");
+        List<File> files = ImmutableList.of(file);
+        Path cacheDir = temporaryFolder.getRoot().toPath().resolve("cache");
+        for (String type : ImmutableList.of("string", "integer", "double")) {
+            write(file, "Type", "alias: " + type);
+            assertThat(IncrementalCompiler.compile(files, cacheDir)).isEqualTo(Conjure.parse(files));
+        }
+
+        try (Stream<Path> cacheFiles = Files.walk(cacheDir)) {
+            assertThat(cacheFiles.filter(Files::isRegularFile).map(cacheDir::relativize).map(Path::toString))
+                    .hasSize(2)
+                    .contains("manifest.json")
+                    .allMatch(path -> path.endsWith(".json"));
+        }
+    }
+
+    @Test
+    public void parsesStaleFilesThroughGivenCaches() throws IOException {
+        File common = temporaryFolder.newFile("common.yml");
+        File importing = temporaryFolder.newFile("importing.yml");
+        write(common, "Common", "alias: string");
+        write(importing, "Importing", "alias: common.Common", "  conjure-imports:\n    common: common.yml\n");
+        List<File> files = ImmutableList.of(importing);
+        Path cacheDir = temporaryFolder.getRoot().toPath().resolve("cache");
+
+        ParseCache parseCache = new ParseCache();
+        assertThat(IncrementalCompiler.compile(files, cacheDir, parseCache, new TranslationCache()))
+                .isEqualTo(Conjure.parse(files));
+        assertThat(parseCache.files()).containsExactlyInAnyOrder(
+                importing.toPath().toRealPath(), common.toPath().toRealPath());
+    }
+
+    private static String name(TypeDefinition definition) {
+        return definition.accept(TypeDefinitionVisitor.TYPE_NAME).getName();
+    }
+
+    private static void write(File file, String typeName, String definition) throws IOException {
+        write(file, typeName, definition, "");
+    }
+
+    private static void write(File file, String typeName, String definition, String imports) throws IOException {
+        String content = "types:\n" + imports
+                + "  definitions:\n"
+                + "    default-package: com.palantir.test\n"
+                + "    objects:\n"
+                + "      " + typeName + ":\n"
+                + "        " + definition + "\n";
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.conjure.parser.CompileContext;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import org.junit.Test;
+
+public final class ConjureDefinitionValidatorTest {
+    private static final TypeName SELF_ALIAS = TypeName.of("SelfAlias", "test.api");
+    private static final TypeName OTHER_ALIAS = TypeName.of("OtherAlias", "test.api");
+
+    @Test
+    public void testSelfAliasIsReportedAsRecursive() {
+        ConjureDefinition definition = definition(alias(SELF_ALIAS, Type.reference(SELF_ALIAS)));
+        assertFailsInFusedAndTracedValidation(definition, "Illegal recursive data type: SelfAlias -> SelfAlias");
+    }
+
+    @Test
+    public void testAliasCycleIsReportedAsRecursive() {
+        ConjureDefinition definition = definition(
+                alias(SELF_ALIAS, Type.reference(OTHER_ALIAS)),
+                alias(OTHER_ALIAS, Type.reference(SELF_ALIAS)));
+        assertFailsInFusedAndTracedValidation(
+                definition, "Illegal recursive data type: OtherAlias -> SelfAlias -> OtherAlias");
+    }
+
+    @Test
+    public void testAliasCycleThroughOptionalIsReportedAsNestedOptional() {
+        ConjureDefinition definition = definition(
+                alias(SELF_ALIAS, Type.reference(OTHER_ALIAS)),
+                alias(OTHER_ALIAS, Type.optional(OptionalType.of(Type.reference(SELF_ALIAS)))));
+        assertFailsInFusedAndTracedValidation(definition, "Illegal nested optionals found in alias SelfAlias");
+    }
+
+    @Test
+    public void testNestedOptionalThroughAliasIsRejected() {
+        ConjureDefinition definition = definition(
+                alias(OTHER_ALIAS, Type.optional(OptionalType.of(Type.primitive(PrimitiveType.STRING)))),
+                alias(SELF_ALIAS, Type.optional(OptionalType.of(Type.reference(OTHER_ALIAS)))));
+        assertFailsInFusedAndTracedValidation(definition, "Illegal nested optionals found in alias SelfAlias");
+    }
+
+    private static void assertFailsInFusedAndTracedValidation(ConjureDefinition definition, String message) {
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(definition))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(message);
+        assertThatThrownBy(() -> CompileContext.createTraced().call(() -> {
+            ConjureDefinitionValidator.validateAll(definition);
+            return null;
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(message);
+    }
+
+    private static ConjureDefinition definition(TypeDefinition... types) {
+        ConjureDefinition.Builder definition = ConjureDefinition.builder().version(1);
+        for (TypeDefinition type : types) {
+            definition.types(type);
+        }
+        return definition.build();
+    }
+
+    private static TypeDefinition alias(TypeName name, Type alias) {
+        return TypeDefinition.alias(AliasDefinition.builder().typeName(name).alias(alias).build());
+    }
+}
@@ -101,6 +101,54 @@ public class ConjureSourceFileValidatorTest {
                 .hasMessageStartingWith("Illegal recursive data type: ");
     }
 
+    @Test
+    public void testNoRecursiveCycleThroughLaterField() {
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(
+                        TypeDefinition.object(
+                                ObjectDefinition.builder()
+                                        .typeName(FOO)
+                                        .fields(field(FieldName.of("baz"), "Baz"))
+                                        .fields(field(FieldName.of("bar"), "Bar"))
+                                        .build()),
+                        TypeDefinition.object(
+                                ObjectDefinition.builder()
+                                        .typeName(BAR)
+                                        .fields(field(FieldName.of("foo"), "Foo"))
+                                        .build()),
+                        TypeDefinition.object(
+                                ObjectDefinition.builder()
+                                        .typeName(TypeName.of("Baz", PACKAGE))
+                                        .build())))
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.NO_RECURSIVE_TYPES.validate(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive data type: Bar -> Foo -> Bar");
+    }
+
+    @Test
+    public void testValidateAllReportsFirstFailingValidator() {
+        TypeDefinition selfRecursive = TypeDefinition.object(ObjectDefinition.builder()
+                .typeName(FOO)
+                .fields(field(FieldName.of("self"), "Foo"))
+                .build());
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(ConjureDefinition.builder()
+                .version(2)
+                .types(ImmutableList.of(selfRecursive))
+                .build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Definition version must be 1");
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(selfRecursive, selfRecursive))
+                .build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive data type: Foo -> Foo");
+    }
+
     private FieldDefinition field(FieldName name, String type) {
         return FieldDefinition.of(name, Type.reference(TypeName.of(type, PACKAGE)), DOCS);
     }
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.spec.ArgumentName;
+import java.util.Optional;
+import org.junit.Test;
+
+public final class HttpPathTemplateTest {
+
+    @Test
+    public void testTokenizesLiteralsAndVariables() {
+        HttpPathTemplate template = HttpPathTemplate.of("/catalog/{id}/v1.2/{rest:.+}");
+
+        assertThat(template.segments()).extracting(HttpPathTemplate.Segment::toString)
+                .containsExactly("catalog", "{id}", "v1.2", "{rest:.+}");
+        assertThat(template.segments()).extracting(HttpPathTemplate.Segment::isVariable)
+                .containsExactly(false, true, false, true);
+        assertThat(template.segments()).extracting(HttpPathTemplate.Segment::value)
+                .containsExactly("catalog", "id", "v1.2", "rest");
+        assertThat(template.segments()).extracting(HttpPathTemplate.Segment::regex)
+                .containsExactly(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(".+"));
+        assertThat(template.variables()).containsExactly(ArgumentName.of("id"), ArgumentName.of("rest"));
+    }
+
+    @Test
+    public void testRootPathHasNoSegments() {
+        assertThat(HttpPathTemplate.of("/").segments()).isEmpty();
+        assertThat(HttpPathTemplate.of("/").variables()).isEmpty();
+    }
+
+    @Test
+    public void testVariablesAreDistinct() {
+        assertThat(HttpPathTemplate.of("/path/{arg}/{arg}").variables()).containsExactly(ArgumentName.of("arg"));
+    }
+
+    @Test
+    public void testTemplatesAreInterned() {
+        assertThat(HttpPathTemplate.of("/a/{b}")).isSameAs(HttpPathTemplate.of("/a/{b}"));
+    }
+}
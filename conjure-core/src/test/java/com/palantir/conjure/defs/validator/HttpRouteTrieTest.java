@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+public final class HttpRouteTrieTest {
+
+    @Test
+    public void testDuplicateRoutesAcrossServicesConflict() {
+        HttpRouteTrie<String> routes = new HttpRouteTrie<>();
+        routes.add("GET", HttpPathTemplate.of("/catalog/{id}/items"), "CatalogService.getItems");
+        routes.add("GET", HttpPathTemplate.of("/catalog/{catalogId}/items"), "ItemService.getItems");
+
+        assertThatThrownBy(routes::verifyNoConflicts)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Endpoint \"GET /catalog/{arg}/items\" is defined by multiple endpoints: "
+                        + "[CatalogService.getItems, ItemService.getItems]");
+    }
+
+    @Test
+    public void testRootRoutesConflict() {
+        HttpRouteTrie<String> routes = new HttpRouteTrie<>();
+        routes.add("POST", HttpPathTemplate.of("/"), "FirstService.create");
+        routes.add("POST", HttpPathTemplate.of("/"), "SecondService.create");
+
+        assertThatThrownBy(routes::verifyNoConflicts)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Endpoint \"POST /\" is defined by multiple endpoints: "
+                        + "[FirstService.create, SecondService.create]");
+    }
+
+    @Test
+    public void testOverlappingRoutesAreAllowed() {
+        HttpRouteTrie<String> routes = new HttpRouteTrie<>();
+        routes.add("GET", HttpPathTemplate.of("/catalog/{id}"), "CatalogService.get");
+        routes.add("GET", HttpPathTemplate.of("/catalog/items"), "ItemService.list");
+        routes.add("GET", HttpPathTemplate.of("/files/{path:.+}"), "FileService.get");
+        routes.add("GET", HttpPathTemplate.of("/files/{path:.+}/metadata"), "FileService.getMetadata");
+        routes.add("PUT", HttpPathTemplate.of("/catalog/{id}"), "CatalogService.put");
+
+        routes.verifyNoConflicts();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.parser.types.TypesDefinition;
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class CompileContextTest {
+    private static final File TEST_SERVICE = new File("src/test/resources/test-service.yml");
+    private static final String IMPORTS = MetricRegistry.name(TypesDefinition.class, "imports");
+
+    @Test
+    public void testRecordsInRegistryOfCurrentContext() {
+        CompileContext first = CompileContext.create();
+        CompileContext second = CompileContext.create();
+
+        first.call(() -> ConjureParser.parse(TEST_SERVICE));
+        first.call(() -> ConjureParser.parse(TEST_SERVICE));
+        second.call(() -> ConjureParser.parse(TEST_SERVICE));
+
+        assertThat(first.registry().counter(IMPORTS).getCount()).isEqualTo(2);
+        assertThat(second.registry().counter(IMPORTS).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPropagatesContextToExecutorTasks() {
+        CompileContext context = CompileContext.create();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            context.call(() -> ConjureParser.parse(ImmutableList.of(TEST_SERVICE, TEST_SERVICE), executor));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(context.registry().counter(IMPORTS).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMergeIntoAddsMetrics() {
+        CompileContext context = CompileContext.create();
+        context.call(() -> ConjureParser.parse(TEST_SERVICE));
+        MetricRegistry target = new MetricRegistry();
+        target.counter(IMPORTS).inc(3);
+
+        context.mergeInto(target);
+
+        assertThat(target.counter(IMPORTS).getCount()).isEqualTo(4);
+        assertThat(target.getCounters().keySet()).containsAll(context.registry().getCounters().keySet());
+    }
+
+    @Test
+    public void testRecordsNoMetricsWithoutDefaultRegistry() {
+        Assume.assumeTrue(SharedMetricRegistries.tryGetDefault() == null);
+        CompileContext context = CompileContext.createForDefault(false);
+        context.call(() -> ConjureParser.parse(TEST_SERVICE));
+
+        assertThat(context.recordsMetrics()).isFalse();
+        assertThatThrownBy(context::registry).isInstanceOf(IllegalStateException.class);
+        MetricRegistry target = new MetricRegistry();
+        context.mergeInto(target);
+        assertThat(target.getMetrics()).isEmpty();
+    }
+
+    @Test
+    public void testGetUncheckedRethrowsFailuresOfTasks() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThatThrownBy(() -> CompileContext.getUnchecked(executor.submit(() -> ConjureParser.parse(
+                    new File("src/test/resources/does-not-exist.yml")))))
+                    .isInstanceOf(ConjureParser.ImportNotFoundException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -83,6 +83,70 @@ public class ConjureParserTest {
         assertThat(result.types().conjureImports()).isNotEmpty();
     }
 
+    @Test
+    public void testSharedImportsAreParsedOnce() throws IOException {
+        generateFiles(ImmutableList.of("common"), ImmutableList.of());
+        File nested = temporaryFolder.newFolder("nested");
+        File first = new File(nested, "first.yml");
+        File second = temporaryFolder.newFile("second.yml");
+        writeFile(first, "types:\n  conjure-imports:\n    common: ../common.yml\n");
+        writeFile(second, "types:\n  conjure-imports:\n    common: nested/../common.yml\n");
+
+        List<ConjureSourceFile> results = ConjureParser.parse(ImmutableList.of(first, second));
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).types().conjureImports().get(Namespace.of("common")).conjure())
+                .isSameAs(results.get(1).types().conjureImports().get(Namespace.of("common")).conjure());
+    }
+
+    @Test
+    public void testParseCacheInvalidatesImportingFiles() throws IOException {
+        File common = temporaryFolder.newFile("common.yml");
+        File importing = temporaryFolder.newFile("importing.yml");
+        File unrelated = temporaryFolder.newFile("unrelated.yml");
+        writeFile(common, "types:\n  definitions:\n    objects:\n      Common:\n        alias: string\n");
+        writeFile(importing, "types:\n  conjure-imports:\n    common: common.yml\n");
+        writeFile(unrelated, "types:\n  definitions:\n    objects:\n      Unrelated:\n        alias: string\n");
+        List<File> files = ImmutableList.of(importing, unrelated);
+
+        ParseCache parseCache = new ParseCache();
+        List<ConjureSourceFile> first = ConjureParser.parse(files, parseCache);
+        List<ConjureSourceFile> second = ConjureParser.parse(files, parseCache);
+        assertThat(second.get(0)).isSameAs(first.get(0));
+        assertThat(second.get(1)).isSameAs(first.get(1));
+
+        writeFile(common, "types:\n  definitions:\n    objects:\n      Common:\n        alias: integer\n");
+        List<ConjureSourceFile> third = ConjureParser.parse(files, parseCache);
+        assertThat(third.get(0)).isNotSameAs(first.get(0));
+        assertThat(third.get(1)).isSameAs(first.get(1));
+    }
+
+    @Test
+    public void testParseCacheInvalidatesDeletedFiles() throws IOException {
+        File nested = temporaryFolder.newFolder("nested");
+        File common = new File(nested, "common.yml");
+        File importing = temporaryFolder.newFile("importing.yml");
+        writeFile(common, "types:\n  definitions:\n    objects:\n      Common:\n        alias: string\n");
+        writeFile(importing, "types:\n  conjure-imports:\n    common: nested/common.yml\n");
+
+        ParseCache parseCache = new ParseCache();
+        ConjureParser.parse(ImmutableList.of(importing), parseCache);
+        assertThat(parseCache.files()).containsExactlyInAnyOrder(
+                importing.toPath().toRealPath(), common.toPath().toRealPath());
+
+        assertThat(common.delete()).isTrue();
+        parseCache.invalidate(common.toPath());
+        assertThat(parseCache.files()).containsExactly(importing.toPath().toRealPath());
+
+        parseCache.invalidate(temporaryFolder.getRoot().toPath());
+        assertThat(parseCache.files()).isEmpty();
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.write(content);
+        }
+    }
+
     private void generateFiles(List<String> names, List<String> importedNamespaces) throws IOException {
         for (String name : names) {
             File file = temporaryFolder.newFile(name + ".yml");
@@ -17,8 +17,11 @@
 package com.palantir.conjure.parser.types;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.conjure.parser.CompileContext;
 import com.palantir.conjure.parser.types.builtin.AnyType;
 import com.palantir.conjure.parser.types.builtin.BinaryType;
 import com.palantir.conjure.parser.types.collect.ListType;
@@ -178,6 +181,69 @@ public final class TypeParserTests {
         TypeParser.INSTANCE.parse("[]");
     }
 
+    @Test
+    public void testParser_whitespaceInMapType() throws ParseException {
+        assertThat(TypeParser.INSTANCE.parse("map < string , optional < bar.Foo > > "))
+                .isEqualTo(MapType.of(
+                        PrimitiveType.STRING,
+                        OptionalType.of(ForeignReferenceType.of(Namespace.of("bar"), TypeName.of("Foo")))));
+    }
+
+    @Test(expected = ParseException.class)
+    public void testParser_trailingCharacter() throws ParseException {
+        TypeParser.INSTANCE.parse("anyX");
+    }
+
+    @Test
+    public void testParser_missingEndToken() {
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("list<string"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Expected endToken");
+    }
+
+    @Test
+    public void testParser_missingItemType() {
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("list<>"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Expected type");
+    }
+
+    @Test
+    public void testParser_missingMapValue() {
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("map<string, >"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageContaining("without associated value");
+    }
+
+    @Test
+    public void testFromString_internsEqualTypes() throws ParseException {
+        ConjureType type = ConjureType.fromString("map<string, optional<list<rid>>>");
+        assertThat(ConjureType.fromString("map<string, optional<list<rid>>>")).isSameAs(type);
+    }
+
+    @Test
+    public void testFromString_countsEveryOccurrence() {
+        CompileContext context = CompileContext.create();
+        context.call(() -> {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    ConjureType.fromString("map<string, optional<list<rid>>>");
+                } catch (ParseException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return null;
+        });
+
+        MetricRegistry registry = context.registry();
+        assertThat(registry.counter(MetricRegistry.name(MapType.class)).getCount()).isEqualTo(3);
+        assertThat(registry.counter(MetricRegistry.name(OptionalType.class)).getCount()).isEqualTo(3);
+        assertThat(registry.counter(MetricRegistry.name(ListType.class)).getCount()).isEqualTo(3);
+        assertThat(registry.counter(MetricRegistry.name(LocalReferenceType.class)).getCount()).isEqualTo(6);
+        assertThat(registry.counter(MetricRegistry.name(ConjureType.class, "cache", "hit")).getCount())
+                .isGreaterThanOrEqualTo(2);
+    }
+
     @Test
     public void testDeserializer_stringType() throws IOException {
         assertThat(new ObjectMapper().readValue("\"string\"", ConjureType.class))
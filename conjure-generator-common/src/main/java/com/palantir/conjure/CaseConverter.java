@@ -4,9 +4,30 @@
 
 package com.palantir.conjure;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.CaseFormat;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+/**
+ * Converts field names between the cases Conjure permits. The case of a name is detected by a single scan, and the
+ * results of {@link #toCase(String, Case)} are kept in a bounded cache per target case that is safe for concurrent use,
+ * since generators convert the same few names many times.
+ */
 public final class CaseConverter {
     public static final Pattern CAMEL_CASE_PATTERN =
             Pattern.compile("^[a-z]([A-Z]{1,2}[a-z0-9]|[a-z0-9])+[A-Z]?$");
@@ -80,15 +101,48 @@ public final class CaseConverter {
     }
 
     public static String toCase(String name, Case targetCase) {
-        return nameCase(name).convertTo(name, targetCase);
+        // names that are in no case are not cached, since the loader throws
+        return Caches.CACHES.get(targetCase).get(name, key -> nameCase(key).convertTo(key, targetCase));
     }
 
-    private static Case nameCase(String name) {
-        for (Case nameCase : Case.values()) {
-            if (nameCase.pattern.matcher(name).matches()) {
-                return nameCase;
+    /**
+     * Returns the given case of every distinct name of the object fields, union members and error arguments in the
+     * given definition, keyed by the name.
+     */
+    public static Map<FieldName, String> toCase(ConjureDefinition definition, Case targetCase) {
+        Map<FieldName, String> names = new HashMap<>();
+        for (TypeDefinition type : definition.getTypes()) {
+            if (type.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+                putAll(names, type.accept(TypeDefinitionVisitor.OBJECT).getFields(), targetCase);
+            } else if (type.accept(TypeDefinitionVisitor.IS_UNION)) {
+                putAll(names, type.accept(TypeDefinitionVisitor.UNION).getUnion(), targetCase);
             }
         }
-        throw new IllegalArgumentException("Unexpected case for: " + name);
+        for (ErrorDefinition error : definition.getErrors()) {
+            putAll(names, error.getSafeArgs(), targetCase);
+            putAll(names, error.getUnsafeArgs(), targetCase);
+        }
+        return ImmutableMap.copyOf(names);
+    }
+
+    private static void putAll(Map<FieldName, String> names, Collection<FieldDefinition> fields, Case targetCase) {
+        for (FieldDefinition field : fields) {
+            names.computeIfAbsent(field.getFieldName(), name -> toCase(name.get(), targetCase));
+        }
+    }
+
+    // initialized on first use, since initializing Case initializes this class
+    private static final class Caches {
+        private static final int MAXIMUM_SIZE = 10_000;
+        private static final Map<Case, Cache<String, String>> CACHES = Maps.immutableEnumMap(
+                Arrays.stream(Case.values()).collect(Collectors.toMap(Function.identity(), targetCase ->
+                        Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).<String, String>build())));
+
+        private Caches() {}
+    }
+
+    private static Case nameCase(String name) {
+        return NameScanners.fieldNameCase(name)
+                .orElseThrow(() -> new IllegalArgumentException("Unexpected case for: " + name));
     }
 }
@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Lookup tables over a {@link ConjureDefinition}, such that generators and validators need not search its lists or
+ * build their own maps. Each group of tables is built in a single pass on its first use, so callers only pay for the
+ * lookups they make; e.g., validators that only look up types never index errors or endpoints.
+ * <p>
+ * The index may be built for definitions that have not been validated yet: if a type, error, service, endpoint or
+ * route is defined more than once, the lookups return the first definition.
+ */
+public final class ConjureDefinitionIndex {
+
+    private final ConjureDefinition definition;
+    private final Supplier<TypeTables> typeTables;
+    private final Supplier<ImmutableTable<ErrorNamespace, String, ErrorDefinition>> errors;
+    private final Supplier<ServiceTables> serviceTables;
+
+    private ConjureDefinitionIndex(ConjureDefinition definition) {
+        this.definition = definition;
+        this.typeTables = Suppliers.memoize(() -> new TypeTables(definition));
+        this.errors = Suppliers.memoize(() -> indexErrors(definition));
+        this.serviceTables = Suppliers.memoize(() -> new ServiceTables(definition));
+    }
+
+    public static ConjureDefinitionIndex of(ConjureDefinition definition) {
+        return new ConjureDefinitionIndex(definition);
+    }
+
+    /** The indexed definition. */
+    public ConjureDefinition definition() {
+        return definition;
+    }
+
+    /** All types by name, in the order of the definition. */
+    public Map<TypeName, TypeDefinition> types() {
+        return typeTables.get().types;
+    }
+
+    public Optional<TypeDefinition> type(TypeName name) {
+        return Optional.ofNullable(typeTables.get().types.get(name));
+    }
+
+    /** The types of the given package, in the order of the definition, or an empty list if there are none. */
+    public List<TypeDefinition> typesInPackage(String conjurePackage) {
+        return typeTables.get().typesByPackage.get(conjurePackage);
+    }
+
+    /** The packages of all types, in the order of their first type in the definition. */
+    public Iterable<String> packages() {
+        return typeTables.get().typesByPackage.keySet();
+    }
+
+    /** The error with the given namespace and name, i.e., the error whose serialized name is {@code namespace:name}. */
+    public Optional<ErrorDefinition> error(ErrorNamespace namespace, String name) {
+        return Optional.ofNullable(errors.get().get(namespace, name));
+    }
+
+    /** All services by name, in the order of the definition. */
+    public Map<TypeName, ServiceDefinition> services() {
+        return serviceTables.get().services;
+    }
+
+    public Optional<ServiceDefinition> service(TypeName serviceName) {
+        return Optional.ofNullable(serviceTables.get().services.get(serviceName));
+    }
+
+    public Optional<EndpointDefinition> endpoint(TypeName serviceName, EndpointName endpointName) {
+        return Optional.ofNullable(serviceTables.get().endpoints.get(serviceName, endpointName));
+    }
+
+    /**
+     * The endpoint of any service with the given method and path. Paths are compared verbatim, i.e., paths that differ
+     * only in the names of their parameters are different paths.
+     */
+    public Optional<EndpointDefinition> endpoint(HttpMethod method, HttpPath path) {
+        return Optional.ofNullable(serviceTables.get().routes.get(method, path));
+    }
+
+    private static ImmutableTable<ErrorNamespace, String, ErrorDefinition> indexErrors(ConjureDefinition definition) {
+        Table<ErrorNamespace, String, ErrorDefinition> errorsBuilder = HashBasedTable.create();
+        for (ErrorDefinition error : definition.getErrors()) {
+            putIfAbsent(errorsBuilder, error.getNamespace(), error.getErrorName().getName(), error);
+        }
+        return ImmutableTable.copyOf(errorsBuilder);
+    }
+
+    private static <R, C, V> void putIfAbsent(Table<R, C, V> table, R row, C column, V value) {
+        if (!table.contains(row, column)) {
+            table.put(row, column, value);
+        }
+    }
+
+    private static final class TypeTables {
+        private final ImmutableMap<TypeName, TypeDefinition> types;
+        private final ImmutableListMultimap<String, TypeDefinition> typesByPackage;
+
+        TypeTables(ConjureDefinition definition) {
+            Map<TypeName, TypeDefinition> typesBuilder = new LinkedHashMap<>();
+            ImmutableListMultimap.Builder<String, TypeDefinition> typesByPackageBuilder =
+                    ImmutableListMultimap.builder();
+            for (TypeDefinition type : definition.getTypes()) {
+                TypeName name = type.accept(TypeDefinitionVisitor.TYPE_NAME);
+                if (typesBuilder.putIfAbsent(name, type) == null) {
+                    typesByPackageBuilder.put(name.getPackage(), type);
+                }
+            }
+            this.types = ImmutableMap.copyOf(typesBuilder);
+            this.typesByPackage = typesByPackageBuilder.build();
+        }
+    }
+
+    private static final class ServiceTables {
+        private final ImmutableMap<TypeName, ServiceDefinition> services;
+        private final ImmutableTable<TypeName, EndpointName, EndpointDefinition> endpoints;
+        private final ImmutableTable<HttpMethod, HttpPath, EndpointDefinition> routes;
+
+        ServiceTables(ConjureDefinition definition) {
+            Map<TypeName, ServiceDefinition> servicesBuilder = new LinkedHashMap<>();
+            Table<TypeName, EndpointName, EndpointDefinition> endpointsBuilder = HashBasedTable.create();
+            Table<HttpMethod, HttpPath, EndpointDefinition> routesBuilder = HashBasedTable.create();
+            for (ServiceDefinition service : definition.getServices()) {
+                servicesBuilder.putIfAbsent(service.getServiceName(), service);
+                for (EndpointDefinition endpoint : service.getEndpoints()) {
+                    putIfAbsent(endpointsBuilder, service.getServiceName(), endpoint.getEndpointName(), endpoint);
+                    putIfAbsent(routesBuilder, endpoint.getHttpMethod(), endpoint.getHttpPath(), endpoint);
+                }
+            }
+            this.services = ImmutableMap.copyOf(servicesBuilder);
+            this.endpoints = ImmutableTable.copyOf(endpointsBuilder);
+            this.routes = ImmutableTable.copyOf(routesBuilder);
+        }
+    }
+}
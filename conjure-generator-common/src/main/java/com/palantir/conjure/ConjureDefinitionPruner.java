@@ -0,0 +1,179 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Restricts a {@link ConjureDefinition} to the parts that a selection of services, errors and types needs, i.e., the
+ * selection itself and every type it references, directly or transitively, according to the
+ * {@link TypeDependencyGraph}. Since the result keeps every type that any remaining type, error or service names, it
+ * is valid whenever the original definition is.
+ * <p>
+ * Globs match names and packages with {@code *} for any run of characters other than {@code .}, {@code **} for any run
+ * of characters, and {@code ?} for any single character other than {@code .}; e.g., {@code com.palantir.*} matches
+ * {@code com.palantir.foo} but neither {@code com.palantir} nor {@code com.palantir.foo.bar}.
+ */
+public final class ConjureDefinitionPruner {
+
+    private ConjureDefinitionPruner() {}
+
+    /**
+     * Returns the given definition with only the services matching any of the given service globs and the errors in
+     * their packages, the services, errors and types in a package matching any of the given package globs, and the
+     * types they reference. A service glob matches either the service's name or its qualified name, e.g.,
+     * {@code *Service} or {@code com.palantir.**.FooService}.
+     *
+     * @throws IllegalArgumentException if a glob matches nothing in the definition
+     */
+    public static ConjureDefinition prune(
+            ConjureDefinition definition, Collection<String> serviceGlobs, Collection<String> packageGlobs) {
+        Set<TypeName> roots = new LinkedHashSet<>(select(definition, serviceGlobs, packageGlobs));
+        // services do not reference the errors they throw, so keep the errors declared alongside them
+        Set<String> servicePackages = new HashSet<>();
+        for (ServiceDefinition service : definition.getServices()) {
+            if (roots.contains(service.getServiceName())) {
+                servicePackages.add(service.getServiceName().getPackage());
+            }
+        }
+        for (ErrorDefinition error : definition.getErrors()) {
+            if (servicePackages.contains(error.getErrorName().getPackage())) {
+                roots.add(error.getErrorName());
+            }
+        }
+        return prune(definition, roots);
+    }
+
+    /**
+     * Returns the given definition with only the types, errors and services of the given names and the types they
+     * reference, in their original order. Names that the definition does not define select nothing.
+     */
+    public static ConjureDefinition prune(ConjureDefinition definition, Collection<TypeName> roots) {
+        Set<TypeName> reachable = TypeDependencyGraph.of(definition).transitiveDependencies(roots);
+        return ConjureDefinition.builder()
+                .version(definition.getVersion())
+                .types(definition.getTypes().stream()
+                        .filter(type -> reachable.contains(type.accept(TypeDefinitionVisitor.TYPE_NAME)))
+                        .collect(ImmutableList.toImmutableList()))
+                .errors(definition.getErrors().stream()
+                        .filter(error -> reachable.contains(error.getErrorName()))
+                        .collect(ImmutableList.toImmutableList()))
+                .services(definition.getServices().stream()
+                        .filter(service -> reachable.contains(service.getServiceName()))
+                        .collect(ImmutableList.toImmutableList()))
+                .build();
+    }
+
+    /**
+     * Returns the names of the services matching any of the given service globs and of the services, errors and types
+     * in a package matching any of the given package globs.
+     *
+     * @throws IllegalArgumentException if a glob matches nothing in the definition
+     */
+    public static Set<TypeName> select(
+            ConjureDefinition definition, Collection<String> serviceGlobs, Collection<String> packageGlobs) {
+        Set<TypeName> selected = new LinkedHashSet<>();
+        for (String glob : serviceGlobs) {
+            Predicate<String> matcher = globMatcher(glob);
+            boolean matched = false;
+            for (ServiceDefinition service : definition.getServices()) {
+                TypeName name = service.getServiceName();
+                if (matcher.test(name.getName()) || matcher.test(name.getPackage() + "." + name.getName())) {
+                    selected.add(name);
+                    matched = true;
+                }
+            }
+            Preconditions.checkArgument(matched, "No service matches the glob: %s", glob);
+        }
+        List<TypeName> definedNames = packageGlobs.isEmpty() ? ImmutableList.of() : definedNames(definition);
+        for (String glob : packageGlobs) {
+            Predicate<String> matcher = globMatcher(glob);
+            boolean matched = false;
+            for (TypeName name : definedNames) {
+                if (matcher.test(name.getPackage())) {
+                    selected.add(name);
+                    matched = true;
+                }
+            }
+            Preconditions.checkArgument(matched, "No package matches the glob: %s", glob);
+        }
+        return selected;
+    }
+
+    /** Returns a predicate that matches exactly the strings the given glob describes. */
+    static Predicate<String> globMatcher(String glob) {
+        Preconditions.checkArgument(!glob.isEmpty(), "Globs must not be empty");
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char ch = glob.charAt(i);
+            if (ch != '*' && ch != '?') {
+                literal.append(ch);
+                i++;
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (ch == '?') {
+                regex.append("[^.]");
+                i++;
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i += 2;
+            } else {
+                regex.append("[^.]*");
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        Pattern pattern = Pattern.compile(regex.toString());
+        return string -> pattern.matcher(string).matches();
+    }
+
+    private static List<TypeName> definedNames(ConjureDefinition definition) {
+        ImmutableList.Builder<TypeName> names = ImmutableList.builder();
+        for (TypeDefinition type : definition.getTypes()) {
+            names.add(type.accept(TypeDefinitionVisitor.TYPE_NAME));
+        }
+        for (ErrorDefinition error : definition.getErrors()) {
+            names.add(error.getErrorName());
+        }
+        for (ServiceDefinition service : definition.getServices()) {
+            names.add(service.getServiceName());
+        }
+        return names.build();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import java.util.Optional;
+
+/**
+ * Single-pass scanners for the names of Conjure definitions. Each scanner accepts exactly the language of the regular
+ * expression it documents, which remains the pattern reported in validation errors, but classifies characters in one
+ * pass instead of running a backtracking matcher.
+ */
+public final class NameScanners {
+
+    private static final Optional<CaseConverter.Case> LOWER_CAMEL_CASE =
+            Optional.of(CaseConverter.Case.LOWER_CAMEL_CASE);
+    private static final Optional<CaseConverter.Case> KEBAB_CASE = Optional.of(CaseConverter.Case.KEBAB_CASE);
+    private static final Optional<CaseConverter.Case> SNAKE_CASE = Optional.of(CaseConverter.Case.SNAKE_CASE);
+
+    // stands in for the separator of camel case names, which separate words by uppercase letters
+    private static final char UPPERCASE = 'A';
+
+    private NameScanners() {}
+
+    /**
+     * Returns the first of {@link CaseConverter.Case#values()} whose pattern matches the given field name, or empty if
+     * none does. Since camel case admits no separators and each of kebab and snake case admits only its own, the
+     * first uppercase letter, '-' or '_' decides the only candidate case, such that the name is scanned once.
+     */
+    public static Optional<CaseConverter.Case> fieldNameCase(String name) {
+        int length = name.length();
+        if (length < 2 || !isLower(name.charAt(0))) {
+            return Optional.empty();
+        }
+        // 0 until the first uppercase letter or separator, which is the only one the name may contain
+        char separator = 0;
+        // number of consecutive uppercase letters, respectively '-x' or '_x' pairs, since the last [a-z0-9]
+        int run = 0;
+        boolean body = false;
+        for (int i = 1; i < length; i++) {
+            char ch = name.charAt(i);
+            if (isLowerOrDigit(ch)) {
+                if (run > 2) {
+                    return Optional.empty();
+                }
+                run = 0;
+                body = true;
+            } else if (isUpper(ch) && (separator == 0 || separator == UPPERCASE)) {
+                separator = UPPERCASE;
+                run++;
+            } else if ((ch == '-' || ch == '_') && (separator == 0 || separator == ch)
+                    && i + 1 < length && isLower(name.charAt(i + 1))) {
+                separator = ch;
+                run++;
+                i++;
+            } else {
+                return Optional.empty();
+            }
+        }
+        if (!body || run > 1) {
+            return Optional.empty();
+        }
+        switch (separator) {
+            case '-':
+                return KEBAB_CASE;
+            case '_':
+                return SNAKE_CASE;
+            default:
+                return LOWER_CAMEL_CASE;
+        }
+    }
+
+    /** Returns true iff the given field name matches the pattern of the given case. */
+    public static boolean isFieldNameInCase(String name, CaseConverter.Case nameCase) {
+        Optional<CaseConverter.Case> detected = fieldNameCase(name);
+        if (!detected.isPresent()) {
+            return false;
+        }
+        // names of only [a-z0-9] are in every case, but are reported as lowerCamelCase
+        return detected.get() == nameCase || (detected.get() == CaseConverter.Case.LOWER_CAMEL_CASE
+                && name.chars().allMatch(ch -> isLowerOrDigit((char) ch)));
+    }
+
+    /** Matches {@code ^[A-Z][a-z0-9]+([A-Z][a-z0-9]+)*$}, the language of both type names and error namespaces. */
+    public static boolean isUpperCamelCase(String name) {
+        int length = name.length();
+        if (length < 2 || !isUpper(name.charAt(0))) {
+            return false;
+        }
+        boolean previousUpper = true;
+        for (int i = 1; i < length; i++) {
+            char ch = name.charAt(i);
+            if (isUpper(ch)) {
+                if (previousUpper) {
+                    return false;
+                }
+                previousUpper = true;
+            } else if (isLowerOrDigit(ch)) {
+                previousUpper = false;
+            } else {
+                return false;
+            }
+        }
+        return !previousUpper;
+    }
+
+    /** Matches {@code ^[_a-zA-Z][_a-zA-Z0-9]*$}. */
+    public static boolean isNamespace(String name) {
+        int length = name.length();
+        if (length == 0 || !(name.charAt(0) == '_' || isLetter(name.charAt(0)))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char ch = name.charAt(i);
+            if (!(ch == '_' || isLetterOrDigit(ch))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches {@code ^([a-z][a-z0-9]+(\.[a-z][a-z0-9]*)*)?$}. */
+    public static boolean isPackage(String name) {
+        int length = name.length();
+        if (length == 0) {
+            return true;
+        }
+        // the first component has at least two characters, all further ones at least one
+        int componentStart = 0;
+        int minimumLength = 2;
+        for (int i = 0; i < length; i++) {
+            char ch = name.charAt(i);
+            if (i == componentStart) {
+                if (!isLower(ch)) {
+                    return false;
+                }
+            } else if (ch == '.') {
+                if (i - componentStart < minimumLength) {
+                    return false;
+                }
+                componentStart = i + 1;
+                minimumLength = 1;
+            } else if (!isLowerOrDigit(ch)) {
+                return false;
+            }
+        }
+        return componentStart < length && length - componentStart >= minimumLength;
+    }
+
+    /**
+     * Matches {@code ^[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*$}, i.e., a lowercase letter followed by letters and digits
+     * in which every uppercase letter is followed by at least one [a-z0-9].
+     */
+    public static boolean isParameterName(String name) {
+        return isParameterName(name, 0, name.length());
+    }
+
+    /** Matches {@code ^[A-Z][a-zA-Z0-9]*(-[A-Z][a-zA-Z0-9]*)*$}. */
+    public static boolean isHeaderName(String name) {
+        int length = name.length();
+        boolean componentStart = true;
+        for (int i = 0; i < length; i++) {
+            char ch = name.charAt(i);
+            if (componentStart) {
+                if (!isUpper(ch)) {
+                    return false;
+                }
+                componentStart = false;
+            } else if (ch == '-') {
+                componentStart = true;
+            } else if (!isLetterOrDigit(ch)) {
+                return false;
+            }
+        }
+        return !componentStart;
+    }
+
+    /**
+     * Matches the segments of an HTTP path: either a literal {@code ^[a-zA-Z][a-zA-Z0-9._-]*$}, or a parameter
+     * {@code {name}}, {@code {name:.+}} or {@code {name:.*}} whose name {@link #isParameterName matches}.
+     */
+    public static boolean isPathSegment(String segment) {
+        int length = segment.length();
+        if (length == 0) {
+            return false;
+        }
+        char first = segment.charAt(0);
+        if (first == '{') {
+            if (length < 3 || segment.charAt(length - 1) != '}') {
+                return false;
+            }
+            int end = length - 1;
+            if (end >= 4 && segment.charAt(end - 3) == ':' && segment.charAt(end - 2) == '.'
+                    && (segment.charAt(end - 1) == '+' || segment.charAt(end - 1) == '*')) {
+                end -= 3;
+            }
+            return isParameterName(segment, 1, end);
+        }
+        if (!isLetter(first)) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char ch = segment.charAt(i);
+            if (!(isLetterOrDigit(ch) || ch == '.' || ch == '_' || ch == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches {@code ^[A-Z][A-Z0-9]*(_[A-Z0-9]+)*$}. */
+    public static boolean isEnumValue(String value) {
+        int length = value.length();
+        if (length == 0 || !isUpper(value.charAt(0))) {
+            return false;
+        }
+        boolean componentStart = false;
+        for (int i = 1; i < length; i++) {
+            char ch = value.charAt(i);
+            if (ch == '_') {
+                if (componentStart) {
+                    return false;
+                }
+                componentStart = true;
+            } else if (isUpper(ch) || isDigit(ch)) {
+                componentStart = false;
+            } else {
+                return false;
+            }
+        }
+        return !componentStart;
+    }
+
+    private static boolean isParameterName(String name, int start, int end) {
+        if (end - start < 1 || !isLower(name.charAt(start))) {
+            return false;
+        }
+        boolean previousUpper = false;
+        for (int i = start + 1; i < end; i++) {
+            char ch = name.charAt(i);
+            if (isUpper(ch)) {
+                if (previousUpper) {
+                    return false;
+                }
+                previousUpper = true;
+            } else if (isLowerOrDigit(ch)) {
+                previousUpper = false;
+            } else {
+                return false;
+            }
+        }
+        return !previousUpper;
+    }
+
+    private static boolean isLower(char ch) {
+        return ch >= 'a' && ch <= 'z';
+    }
+
+    private static boolean isUpper(char ch) {
+        return ch >= 'A' && ch <= 'Z';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isLetter(char ch) {
+        return isLower(ch) || isUpper(ch);
+    }
+
+    private static boolean isLowerOrDigit(char ch) {
+        return isLower(ch) || isDigit(ch);
+    }
+
+    private static boolean isLetterOrDigit(char ch) {
+        return isLetter(ch) || isDigit(ch);
+    }
+}
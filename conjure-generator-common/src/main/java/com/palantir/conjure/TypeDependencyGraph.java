@@ -0,0 +1,321 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.SetType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The references between the types, errors and services of a {@link ConjureDefinition}. A type, error or service
+ * depends on every type it names anywhere in its fields, union members, alias, arguments, arguments' markers or
+ * return types, including within optionals, lists, sets and maps and the fallbacks of external references. Names of
+ * external types are not part of the graph.
+ * <p>
+ * The nodes of the graph are the names of all defined types, errors and services, and of all types they reference.
+ */
+public final class TypeDependencyGraph {
+
+    private final ImmutableSetMultimap<TypeName, TypeName> dependencies;
+    private final ImmutableSetMultimap<TypeName, TypeName> dependents;
+    private final ImmutableSet<TypeName> nodes;
+    private final ImmutableList<Set<TypeName>> components;
+
+    private TypeDependencyGraph(ImmutableSetMultimap<TypeName, TypeName> dependencies, Set<TypeName> definedNames) {
+        this.dependencies = dependencies;
+        this.dependents = dependencies.inverse();
+        this.nodes = ImmutableSet.<TypeName>builder().addAll(definedNames).addAll(dependencies.values()).build();
+        this.components = stronglyConnectedComponents(nodes, this.dependencies::get);
+    }
+
+    public static TypeDependencyGraph of(ConjureDefinition definition) {
+        ImmutableSetMultimap.Builder<TypeName, TypeName> dependencies = ImmutableSetMultimap.builder();
+        Set<TypeName> definedNames = new LinkedHashSet<>();
+        for (TypeDefinition type : definition.getTypes()) {
+            TypeName name = type.accept(TypeDefinitionVisitor.TYPE_NAME);
+            definedNames.add(name);
+            dependencies.putAll(name, references(type));
+        }
+        for (ErrorDefinition error : definition.getErrors()) {
+            definedNames.add(error.getErrorName());
+            dependencies.putAll(error.getErrorName(), references(error));
+        }
+        for (ServiceDefinition service : definition.getServices()) {
+            definedNames.add(service.getServiceName());
+            for (EndpointDefinition endpoint : service.getEndpoints()) {
+                dependencies.putAll(service.getServiceName(), references(endpoint));
+            }
+        }
+        return new TypeDependencyGraph(dependencies.build(), definedNames);
+    }
+
+    /** All names in the graph, defined ones first and in the order of the definition. */
+    public Set<TypeName> nodes() {
+        return nodes;
+    }
+
+    /** The types the given type, error or service references directly, or an empty set if it is not in the graph. */
+    public Set<TypeName> dependencies(TypeName name) {
+        return dependencies.get(name);
+    }
+
+    /** The types, errors and services that reference the given type directly. */
+    public Set<TypeName> dependents(TypeName name) {
+        return dependents.get(name);
+    }
+
+    /**
+     * The strongly connected components of the graph, i.e., maximal sets of mutually recursive types, such that each
+     * component comes after all components it depends on. A type that is not part of a cycle forms a component on its
+     * own.
+     */
+    public List<Set<TypeName>> stronglyConnectedComponents() {
+        return components;
+    }
+
+    /**
+     * All names of the graph such that every name comes after all names it depends on, except for names of the same
+     * {@link #stronglyConnectedComponents() strongly connected component}, which depend on each other.
+     */
+    public List<TypeName> topologicalOrder() {
+        return components.stream().flatMap(Set::stream).collect(ImmutableList.toImmutableList());
+    }
+
+    /** The given names and all types they reference, directly or transitively. */
+    public Set<TypeName> transitiveDependencies(Collection<TypeName> roots) {
+        return closure(roots, dependencies);
+    }
+
+    /**
+     * The given names and all types, errors and services that reference them, directly or transitively, i.e., all
+     * parts of the definition that are affected by a change to the given types.
+     */
+    public Set<TypeName> transitiveDependents(Collection<TypeName> roots) {
+        return closure(roots, dependents);
+    }
+
+    /** The names of all types that the given type references through any number of containers. */
+    public static Set<TypeName> references(Type type) {
+        Set<TypeName> references = new LinkedHashSet<>();
+        type.accept(new ReferenceCollector(references));
+        return references;
+    }
+
+    /** The names of all types that the given type definition references, e.g., in its fields or alias. */
+    public static Set<TypeName> references(TypeDefinition type) {
+        Set<TypeName> references = new LinkedHashSet<>();
+        ReferenceCollector collector = new ReferenceCollector(references);
+        if (type.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+            type.accept(TypeDefinitionVisitor.OBJECT).getFields().forEach(field -> field.getType().accept(collector));
+        } else if (type.accept(TypeDefinitionVisitor.IS_UNION)) {
+            type.accept(TypeDefinitionVisitor.UNION).getUnion().forEach(field -> field.getType().accept(collector));
+        } else if (type.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+            AliasDefinition alias = type.accept(TypeDefinitionVisitor.ALIAS);
+            alias.getAlias().accept(collector);
+        }
+        return references;
+    }
+
+    /** The names of all types that the safe or unsafe arguments of the given error reference. */
+    public static Set<TypeName> references(ErrorDefinition error) {
+        Set<TypeName> references = new LinkedHashSet<>();
+        ReferenceCollector collector = new ReferenceCollector(references);
+        for (FieldDefinition field : error.getSafeArgs()) {
+            field.getType().accept(collector);
+        }
+        for (FieldDefinition field : error.getUnsafeArgs()) {
+            field.getType().accept(collector);
+        }
+        return references;
+    }
+
+    /** The names of all types that the arguments, their markers or the return type of the given endpoint reference. */
+    public static Set<TypeName> references(EndpointDefinition endpoint) {
+        Set<TypeName> references = new LinkedHashSet<>();
+        ReferenceCollector collector = new ReferenceCollector(references);
+        for (ArgumentDefinition arg : endpoint.getArgs()) {
+            arg.getType().accept(collector);
+            arg.getMarkers().forEach(marker -> marker.accept(collector));
+        }
+        endpoint.getReturns().ifPresent(returns -> returns.accept(collector));
+        return references;
+    }
+
+    /**
+     * Returns the strongly connected components of the graph with the given nodes and edges, such that each component
+     * comes after all components it has edges to, using a single iterative pass of Tarjan's algorithm. Nodes are
+     * visited in the given order, and the successors of each node in the order of its edges; successors that are not
+     * among the given nodes are visited as well.
+     */
+    public static List<Set<TypeName>> stronglyConnectedComponents(
+            Iterable<TypeName> nodes, Function<TypeName, ? extends Collection<TypeName>> edges) {
+        ImmutableList.Builder<Set<TypeName>> components = ImmutableList.builder();
+        Map<TypeName, Integer> index = new HashMap<>();
+        Map<TypeName, Integer> lowLink = new HashMap<>();
+        Deque<TypeName> componentStack = new ArrayDeque<>();
+        Set<TypeName> onComponentStack = new HashSet<>();
+        Deque<Map.Entry<TypeName, Iterator<TypeName>>> callStack = new ArrayDeque<>();
+
+        for (TypeName root : nodes) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            visit(root, edges, index, lowLink, componentStack, onComponentStack, callStack);
+            while (!callStack.isEmpty()) {
+                TypeName current = callStack.peek().getKey();
+                Iterator<TypeName> successors = callStack.peek().getValue();
+                if (successors.hasNext()) {
+                    TypeName next = successors.next();
+                    if (!index.containsKey(next)) {
+                        visit(next, edges, index, lowLink, componentStack, onComponentStack, callStack);
+                    } else if (onComponentStack.contains(next)) {
+                        lowLink.put(current, Math.min(lowLink.get(current), index.get(next)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    TypeName parent = callStack.peek().getKey();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(current)));
+                }
+                if (lowLink.get(current).equals(index.get(current))) {
+                    ImmutableSet.Builder<TypeName> component = ImmutableSet.builder();
+                    TypeName member;
+                    do {
+                        member = componentStack.pop();
+                        onComponentStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(current));
+                    components.add(component.build());
+                }
+            }
+        }
+        return components.build();
+    }
+
+    private static void visit(
+            TypeName typeName,
+            Function<TypeName, ? extends Collection<TypeName>> edges,
+            Map<TypeName, Integer> index,
+            Map<TypeName, Integer> lowLink,
+            Deque<TypeName> componentStack,
+            Set<TypeName> onComponentStack,
+            Deque<Map.Entry<TypeName, Iterator<TypeName>>> callStack) {
+        index.put(typeName, index.size());
+        lowLink.put(typeName, index.get(typeName));
+        componentStack.push(typeName);
+        onComponentStack.add(typeName);
+        Collection<TypeName> successors = edges.apply(typeName);
+        callStack.push(Maps.immutableEntry(
+                typeName, (successors != null ? successors : Collections.<TypeName>emptyList()).iterator()));
+    }
+
+    private static Set<TypeName> closure(Collection<TypeName> roots, SetMultimap<TypeName, TypeName> edges) {
+        Set<TypeName> closure = new LinkedHashSet<>(roots);
+        Deque<TypeName> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            for (TypeName next : edges.get(queue.poll())) {
+                if (closure.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(closure);
+    }
+
+    private static final class ReferenceCollector implements Type.Visitor<Void> {
+        private final Set<TypeName> references;
+
+        ReferenceCollector(Set<TypeName> references) {
+            this.references = references;
+        }
+
+        @Override
+        public Void visitPrimitive(PrimitiveType value) {
+            return null;
+        }
+
+        @Override
+        public Void visitOptional(OptionalType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitList(ListType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitSet(SetType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitMap(MapType value) {
+            value.getKeyType().accept(this);
+            return value.getValueType().accept(this);
+        }
+
+        @Override
+        public Void visitReference(TypeName value) {
+            references.add(value);
+            return null;
+        }
+
+        @Override
+        public Void visitExternal(ExternalReference value) {
+            return value.getFallback().accept(this);
+        }
+
+        @Override
+        public Void visitUnknown(String unknownType) {
+            throw new IllegalStateException("Unknown type: " + unknownType);
+        }
+    }
+}
@@ -18,23 +18,35 @@ package com.palantir.conjure.visitor;
 
 import com.google.common.base.Preconditions;
 import com.palantir.conjure.either.Either;
-import com.palantir.conjure.spec.AliasDefinition;
-import com.palantir.conjure.spec.EnumDefinition;
 import com.palantir.conjure.spec.ExternalReference;
 import com.palantir.conjure.spec.ListType;
 import com.palantir.conjure.spec.MapType;
-import com.palantir.conjure.spec.ObjectDefinition;
 import com.palantir.conjure.spec.OptionalType;
 import com.palantir.conjure.spec.PrimitiveType;
 import com.palantir.conjure.spec.SetType;
 import com.palantir.conjure.spec.Type;
 import com.palantir.conjure.spec.TypeDefinition;
 import com.palantir.conjure.spec.TypeName;
-import com.palantir.conjure.spec.UnionDefinition;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves references to the type definitions or non-reference types they ultimately stand for.
+ * <p>
+ * Creating a visitor neither copies nor reads the given types, which must not change afterwards. Each alias chain is
+ * resolved the first time any alias on it is dealiased, and the result is remembered for every alias on the chain, so
+ * that later lookups are a single map access. Instances can be shared freely between threads, validators and
+ * generators. References that cannot be resolved (unknown types, recursive aliases) fail whenever they are dealiased.
+ */
 public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefinition, Type>> {
+    private static final Type.Visitor<Type> EXTERNAL_FALLBACK = new ExternalFallbackVisitor();
+
     private final Map<TypeName, TypeDefinition> objects;
+    private final Map<TypeName, Either<TypeDefinition, Type>> dealiased = new ConcurrentHashMap<>();
 
     public DealiasingTypeVisitor(Map<TypeName, TypeDefinition> objects) {
         this.objects = objects;
@@ -49,42 +61,77 @@ public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefi
      * wouldn't unwrap that, so we'd just return the same {@code list<C>}.
      */
     public Either<TypeDefinition, Type> dealias(Type type) {
-        return type.accept(this);
+        Type resolved = withoutExternals(type);
+        if (resolved.accept(TypeVisitor.IS_REFERENCE)) {
+            return visitReference(resolved.accept(TypeVisitor.REFERENCE));
+        }
+        return Either.right(resolved);
     }
 
     @Override
     public Either<TypeDefinition, Type> visitReference(TypeName value) {
-        TypeDefinition typeDefinition = objects.get(value);
-        Preconditions.checkState(
-                typeDefinition != null,
-                "Referenced TypeDefinition not found in map of types for TypeName: %s", value);
-        return typeDefinition.accept(new TypeDefinition.Visitor<Either<TypeDefinition, Type>>() {
-            @Override
-            public Either<TypeDefinition, Type> visitAlias(AliasDefinition value) {
-                // Recursively visit target of alias
-                return value.getAlias().accept(DealiasingTypeVisitor.this);
-            }
+        Either<TypeDefinition, Type> result = dealiased.get(value);
+        return result != null ? result : resolve(value);
+    }
 
-            @Override
-            public Either<TypeDefinition, Type> visitEnum(EnumDefinition value) {
-                return Either.left(TypeDefinition.enum_(value));
+    /**
+     * Follows the alias chain starting at {@code typeName} until it ends in a non-alias type definition or a
+     * non-reference type, and remembers the result for every alias on the chain. Chains that fail to resolve are not
+     * remembered, so that dealiasing them again reports the same error.
+     */
+    private Either<TypeDefinition, Type> resolve(TypeName typeName) {
+        Set<TypeName> chain = new LinkedHashSet<>();
+        TypeName current = typeName;
+        Either<TypeDefinition, Type> result = dealiased.get(current);
+        while (result == null) {
+            TypeDefinition typeDefinition = objects.get(current);
+            Preconditions.checkState(
+                    typeDefinition != null,
+                    "Referenced TypeDefinition not found in map of types for TypeName: %s", current);
+            if (!chain.add(current)) {
+                throw new IllegalStateException("Illegal recursive alias: " + describeCycle(chain, current));
             }
 
-            @Override
-            public Either<TypeDefinition, Type> visitObject(ObjectDefinition value) {
-                return Either.left(TypeDefinition.object(value));
+            if (!typeDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                if (!typeDefinition.accept(TypeDefinitionVisitor.IS_OBJECT)
+                        && !typeDefinition.accept(TypeDefinitionVisitor.IS_ENUM)
+                        && !typeDefinition.accept(TypeDefinitionVisitor.IS_UNION)) {
+                    throw new IllegalStateException("Unsupported type: " + typeDefinition);
+                }
+                result = Either.left(typeDefinition);
+            } else {
+                Type target = withoutExternals(typeDefinition.accept(TypeDefinitionVisitor.ALIAS).getAlias());
+                if (target.accept(TypeVisitor.IS_REFERENCE)) {
+                    current = target.accept(TypeVisitor.REFERENCE);
+                    result = dealiased.get(current);
+                } else {
+                    result = Either.right(target);
+                }
             }
+        }
+        for (TypeName alias : chain) {
+            dealiased.put(alias, result);
+        }
+        return result;
+    }
 
-            @Override
-            public Either<TypeDefinition, Type> visitUnion(UnionDefinition value) {
-                return Either.left(TypeDefinition.union(value));
+    /** Returns the cycle of the given alias chain that starts at the given alias, e.g., {@code A -> B -> A}. */
+    private static String describeCycle(Set<TypeName> chain, TypeName start) {
+        List<String> cycle = new ArrayList<>();
+        boolean inCycle = false;
+        for (TypeName alias : chain) {
+            inCycle = inCycle || alias.equals(start);
+            if (inCycle) {
+                cycle.add(alias.getName());
             }
+        }
+        cycle.add(start.getName());
+        return String.join(" -> ", cycle);
+    }
 
-            @Override
-            public Either<TypeDefinition, Type> visitUnknown(String unknownType) {
-                throw new IllegalStateException("Unsupported type: " + unknownType);
-            }
-        });
+    private static Type withoutExternals(Type type) {
+        Type fallback = type.accept(EXTERNAL_FALLBACK);
+        return fallback != null ? fallback : type;
     }
 
     // Identity mapping for here onwards.
@@ -123,4 +170,47 @@ public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefi
     public Either<TypeDefinition, Type> visitUnknown(String unknownType) {
         throw new IllegalStateException("Unsupported type: " + unknownType);
     }
+
+    /** Returns the innermost fallback of an external reference, or {@code null} for any other type. */
+    private static final class ExternalFallbackVisitor implements Type.Visitor<Type> {
+        @Override
+        public Type visitPrimitive(PrimitiveType value) {
+            return null;
+        }
+
+        @Override
+        public Type visitOptional(OptionalType value) {
+            return null;
+        }
+
+        @Override
+        public Type visitList(ListType value) {
+            return null;
+        }
+
+        @Override
+        public Type visitSet(SetType value) {
+            return null;
+        }
+
+        @Override
+        public Type visitMap(MapType value) {
+            return null;
+        }
+
+        @Override
+        public Type visitReference(TypeName value) {
+            return null;
+        }
+
+        @Override
+        public Type visitExternal(ExternalReference value) {
+            return withoutExternals(value.getFallback());
+        }
+
+        @Override
+        public Type visitUnknown(String unknownType) {
+            throw new IllegalStateException("Unsupported type: " + unknownType);
+        }
+    }
 }
@@ -5,7 +5,21 @@
 package com.palantir.conjure;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.spec.UnionDefinition;
 import org.junit.Test;
 
 public class CaseConverterTest {
@@ -46,4 +60,58 @@ public class CaseConverterTest {
         assertThat(CaseConverter.toCase(snakeCase, CaseConverter.Case.SNAKE_CASE)).isEqualTo(snakeCase);
     }
 
+    @Test
+    public void conversionsAreCached() {
+        String name = "cachedFooBar";
+        assertThat(CaseConverter.toCase(name, CaseConverter.Case.KEBAB_CASE))
+                .isSameAs(CaseConverter.toCase(name, CaseConverter.Case.KEBAB_CASE));
+    }
+
+    @Test
+    public void invalidNamesAreRejectedOnEveryCall() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> CaseConverter.toCase("FooBar", CaseConverter.Case.KEBAB_CASE))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Unexpected case for: FooBar");
+        }
+    }
+
+    @Test
+    public void convertsAllFieldNamesOfDefinition() {
+        ConjureDefinition definition = ConjureDefinition.builder()
+                .version(1)
+                .types(TypeDefinition.object(ObjectDefinition.builder()
+                        .typeName(TypeName.of("Foo", "test"))
+                        .fields(field("fooBar"))
+                        .fields(field("foo-baz"))
+                        .build()))
+                .types(TypeDefinition.union(UnionDefinition.builder()
+                        .typeName(TypeName.of("Bar", "test"))
+                        .union(field("fooBar"))
+                        .union(field("union_member"))
+                        .build()))
+                .errors(ErrorDefinition.builder()
+                        .errorName(TypeName.of("Baz", "test"))
+                        .namespace(ErrorNamespace.of("Test"))
+                        .code(ErrorCode.INVALID_ARGUMENT)
+                        .safeArgs(field("safeArg"))
+                        .unsafeArgs(field("unsafe-arg"))
+                        .build())
+                .build();
+
+        assertThat(CaseConverter.toCase(definition, CaseConverter.Case.SNAKE_CASE)).isEqualTo(ImmutableMap.of(
+                FieldName.of("fooBar"), "foo_bar",
+                FieldName.of("foo-baz"), "foo_baz",
+                FieldName.of("union_member"), "union_member",
+                FieldName.of("safeArg"), "safe_arg",
+                FieldName.of("unsafe-arg"), "unsafe_arg"));
+    }
+
+    private static FieldDefinition field(String name) {
+        return FieldDefinition.builder()
+                .fieldName(FieldName.of(name))
+                .type(Type.primitive(PrimitiveType.STRING))
+                .build();
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.EnumValueDefinition;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import org.junit.Test;
+
+public class ConjureDefinitionIndexTest {
+    private static final TypeName FOO = TypeName.of("Foo", "com.palantir.a");
+    private static final TypeName BAR = TypeName.of("Bar", "com.palantir.b");
+    private static final TypeName BAZ = TypeName.of("Baz", "com.palantir.a");
+    private static final TypeName SERVICE = TypeName.of("TestService", "com.palantir.a");
+
+    private static final TypeDefinition FOO_DEF = object(FOO);
+    private static final TypeDefinition BAR_DEF = TypeDefinition.enum_(EnumDefinition.builder()
+            .typeName(BAR)
+            .values(EnumValueDefinition.builder().value("ONE").build())
+            .build());
+    private static final TypeDefinition BAZ_DEF = object(BAZ);
+    private static final ErrorDefinition ERROR = ErrorDefinition.builder()
+            .errorName(TypeName.of("NotFound", "com.palantir.a"))
+            .namespace(ErrorNamespace.of("Test"))
+            .code(ErrorCode.NOT_FOUND)
+            .build();
+    private static final EndpointDefinition GET_FOO = endpoint("getFoo", HttpMethod.GET, "/foo/{id}");
+    private static final EndpointDefinition PUT_FOO = endpoint("putFoo", HttpMethod.PUT, "/foo/{id}");
+    private static final ServiceDefinition SERVICE_DEF = ServiceDefinition.builder()
+            .serviceName(SERVICE)
+            .endpoints(GET_FOO)
+            .endpoints(PUT_FOO)
+            .build();
+
+    private final ConjureDefinitionIndex index = ConjureDefinitionIndex.of(ConjureDefinition.builder()
+            .version(1)
+            .types(FOO_DEF)
+            .types(BAR_DEF)
+            .types(BAZ_DEF)
+            // a duplicate, as in definitions that are not validated yet
+            .types(TypeDefinition.object(ObjectDefinition.builder()
+                    .typeName(FOO)
+                    .docs(Documentation.of("duplicate"))
+                    .build()))
+            .errors(ERROR)
+            .services(SERVICE_DEF)
+            .build());
+
+    @Test
+    public void testTypes() {
+        assertThat(index.type(FOO)).contains(FOO_DEF);
+        assertThat(index.type(TypeName.of("Foo", "com.palantir.b"))).isEmpty();
+        assertThat(index.types().values()).containsExactly(FOO_DEF, BAR_DEF, BAZ_DEF);
+    }
+
+    @Test
+    public void testTypesByPackage() {
+        assertThat(index.typesInPackage("com.palantir.a")).containsExactly(FOO_DEF, BAZ_DEF);
+        assertThat(index.typesInPackage("com.palantir.b")).containsExactly(BAR_DEF);
+        assertThat(index.typesInPackage("com.palantir.c")).isEmpty();
+        assertThat(index.packages()).containsExactly("com.palantir.a", "com.palantir.b");
+    }
+
+    @Test
+    public void testErrors() {
+        assertThat(index.error(ErrorNamespace.of("Test"), "NotFound")).contains(ERROR);
+        assertThat(index.error(ErrorNamespace.of("Other"), "NotFound")).isEmpty();
+    }
+
+    @Test
+    public void testServicesAndEndpoints() {
+        assertThat(index.service(SERVICE)).contains(SERVICE_DEF);
+        assertThat(index.services()).containsOnlyKeys(SERVICE);
+        assertThat(index.endpoint(SERVICE, EndpointName.of("putFoo"))).contains(PUT_FOO);
+        assertThat(index.endpoint(FOO, EndpointName.of("putFoo"))).isEmpty();
+        assertThat(index.endpoint(HttpMethod.GET, HttpPath.of("/foo/{id}"))).contains(GET_FOO);
+        assertThat(index.endpoint(HttpMethod.POST, HttpPath.of("/foo/{id}"))).isEmpty();
+    }
+
+    private static TypeDefinition object(TypeName name) {
+        return TypeDefinition.object(ObjectDefinition.builder().typeName(name).build());
+    }
+
+    private static EndpointDefinition endpoint(String name, HttpMethod method, String path) {
+        return EndpointDefinition.builder()
+                .endpointName(EndpointName.of(name))
+                .httpMethod(method)
+                .httpPath(HttpPath.of(path))
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class ConjureDefinitionPrunerTest {
+    private static final TypeName REQUEST = TypeName.of("Request", "com.palantir.foo");
+    private static final TypeName ITEM = TypeName.of("Item", "com.palantir.shared");
+    private static final TypeName UNUSED = TypeName.of("Unused", "com.palantir.foo");
+    private static final TypeName DETAILS = TypeName.of("Details", "com.palantir.bar");
+    private static final TypeName FOO_ERROR = TypeName.of("FooError", "com.palantir.foo");
+    private static final TypeName BAR_ERROR = TypeName.of("BarError", "com.palantir.bar");
+    private static final TypeName FOO_SERVICE = TypeName.of("FooService", "com.palantir.foo");
+    private static final TypeName BAR_SERVICE = TypeName.of("BarService", "com.palantir.bar");
+
+    private static final ConjureDefinition DEFINITION = ConjureDefinition.builder()
+            .version(1)
+            .types(object(REQUEST, Type.list(ListType.of(Type.reference(ITEM)))))
+            .types(object(ITEM))
+            .types(object(UNUSED))
+            .types(object(DETAILS))
+            .errors(error(FOO_ERROR))
+            .errors(error(BAR_ERROR, Type.reference(DETAILS)))
+            .services(service(FOO_SERVICE, Type.reference(REQUEST)))
+            .services(service(BAR_SERVICE, Type.reference(ITEM)))
+            .build();
+
+    @Test
+    public void testPrunesToTransitiveDependenciesOfServices() {
+        ConjureDefinition pruned = ConjureDefinitionPruner.prune(
+                DEFINITION, ImmutableList.of("FooService"), ImmutableList.of());
+        assertThat(typeNames(pruned)).containsExactly(REQUEST, ITEM);
+        assertThat(pruned.getErrors()).containsExactly(DEFINITION.getErrors().get(0));
+        assertThat(pruned.getServices()).containsExactly(DEFINITION.getServices().get(0));
+        assertThat(pruned.getVersion()).isEqualTo(DEFINITION.getVersion());
+    }
+
+    @Test
+    public void testKeepsErrorsInPackagesOfServices() {
+        ConjureDefinition pruned = ConjureDefinitionPruner.prune(
+                DEFINITION, ImmutableList.of("BarService"), ImmutableList.of());
+        assertThat(pruned.getServices()).containsExactly(DEFINITION.getServices().get(1));
+        assertThat(pruned.getErrors()).containsExactly(DEFINITION.getErrors().get(1));
+        assertThat(typeNames(pruned)).containsExactly(ITEM, DETAILS);
+    }
+
+    @Test
+    public void testPrunesToDefinitionsInPackages() {
+        ConjureDefinition pruned = ConjureDefinitionPruner.prune(
+                DEFINITION, ImmutableList.of(), ImmutableList.of("com.palantir.bar"));
+        assertThat(typeNames(pruned)).containsExactly(ITEM, DETAILS);
+        assertThat(pruned.getErrors()).containsExactly(DEFINITION.getErrors().get(1));
+        assertThat(pruned.getServices()).containsExactly(DEFINITION.getServices().get(1));
+    }
+
+    @Test
+    public void testCombinesSelections() {
+        ConjureDefinition pruned = ConjureDefinitionPruner.prune(
+                DEFINITION, ImmutableList.of("com.palantir.*.BarService"), ImmutableList.of("**.foo"));
+        assertThat(typeNames(pruned)).containsExactly(REQUEST, ITEM, UNUSED, DETAILS);
+        assertThat(pruned.getErrors()).isEqualTo(DEFINITION.getErrors());
+        assertThat(pruned.getServices()).isEqualTo(DEFINITION.getServices());
+    }
+
+    @Test
+    public void testPrunesToRoots() {
+        ConjureDefinition pruned = ConjureDefinitionPruner.prune(
+                DEFINITION, ImmutableList.of(BAR_ERROR, TypeName.of("Missing", "com.palantir.foo")));
+        assertThat(typeNames(pruned)).containsExactly(DETAILS);
+        assertThat(pruned.getErrors()).containsExactly(DEFINITION.getErrors().get(1));
+        assertThat(pruned.getServices()).isEmpty();
+    }
+
+    @Test
+    public void testSelect() {
+        assertThat(ConjureDefinitionPruner.select(DEFINITION, ImmutableList.of("*Service"), ImmutableList.of()))
+                .containsExactly(FOO_SERVICE, BAR_SERVICE);
+        assertThat(ConjureDefinitionPruner.select(DEFINITION, ImmutableList.of(), ImmutableList.of("com.palantir.?oo")))
+                .containsExactly(REQUEST, UNUSED, FOO_ERROR, FOO_SERVICE);
+    }
+
+    @Test
+    public void testThrowsWhenGlobMatchesNothing() {
+        assertThatThrownBy(() -> ConjureDefinitionPruner.select(
+                DEFINITION, ImmutableList.of("BazService"), ImmutableList.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No service matches the glob: BazService");
+        assertThatThrownBy(() -> ConjureDefinitionPruner.select(
+                DEFINITION, ImmutableList.of(), ImmutableList.of("com.palantir")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No package matches the glob: com.palantir");
+    }
+
+    @Test
+    public void testGlobMatcher() {
+        Predicate<String> single = ConjureDefinitionPruner.globMatcher("com.palantir.*");
+        assertThat(single).accepts("com.palantir.foo", "com.palantir.");
+        assertThat(single).rejects("com.palantir", "com.palantir.foo.bar", "comXpalantir.foo");
+
+        Predicate<String> multi = ConjureDefinitionPruner.globMatcher("com.**.api");
+        assertThat(multi).accepts("com.palantir.api", "com.palantir.foo.api");
+        assertThat(multi).rejects("com.api", "com.palantir.apis");
+
+        Predicate<String> any = ConjureDefinitionPruner.globMatcher("?oo[1]");
+        assertThat(any).accepts("foo[1]");
+        assertThat(any).rejects(".oo[1]", "foo1");
+    }
+
+    private static List<TypeName> typeNames(ConjureDefinition definition) {
+        return definition.getTypes().stream()
+                .map(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME))
+                .collect(Collectors.toList());
+    }
+
+    private static TypeDefinition object(TypeName name, Type... fieldTypes) {
+        ObjectDefinition.Builder object = ObjectDefinition.builder().typeName(name);
+        for (int i = 0; i < fieldTypes.length; i++) {
+            object.fields(field("field" + i, fieldTypes[i]));
+        }
+        return TypeDefinition.object(object.build());
+    }
+
+    private static ErrorDefinition error(TypeName name, Type... safeArgTypes) {
+        ErrorDefinition.Builder error = ErrorDefinition.builder()
+                .errorName(name)
+                .namespace(ErrorNamespace.of("Test"))
+                .code(ErrorCode.INTERNAL);
+        for (int i = 0; i < safeArgTypes.length; i++) {
+            error.safeArgs(field("arg" + i, safeArgTypes[i]));
+        }
+        return error.build();
+    }
+
+    private static ServiceDefinition service(TypeName name, Type returns) {
+        return ServiceDefinition.builder()
+                .serviceName(name)
+                .endpoints(EndpointDefinition.builder()
+                        .endpointName(EndpointName.of("get"))
+                        .httpMethod(HttpMethod.GET)
+                        .httpPath(HttpPath.of("/get"))
+                        .returns(returns)
+                        .build())
+                .build();
+    }
+
+    private static FieldDefinition field(String name, Type type) {
+        return FieldDefinition.builder().fieldName(FieldName.of(name)).type(type).build();
+    }
+}
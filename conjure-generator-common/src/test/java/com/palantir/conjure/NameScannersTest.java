@@ -0,0 +1,195 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class NameScannersTest {
+
+    private static final Pattern TYPE_NAME = Pattern.compile("^[A-Z][a-z0-9]+([A-Z][a-z0-9]+)*$");
+    private static final Pattern ERROR_NAMESPACE = Pattern.compile("(([A-Z][a-z0-9]+)+)");
+    private static final Pattern NAMESPACE = Pattern.compile("^[_a-zA-Z][_a-zA-Z0-9]*$");
+    private static final Pattern PACKAGE = Pattern.compile("^([a-z][a-z0-9]+(\\.[a-z][a-z0-9]*)*)?$");
+    private static final Pattern PARAMETER_NAME = Pattern.compile("^[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*$");
+    private static final Pattern HEADER_NAME = Pattern.compile("^[A-Z][a-zA-Z0-9]*(-[A-Z][a-zA-Z0-9]*)*$");
+    private static final Pattern ENUM_VALUE = Pattern.compile("[A-Z][A-Z0-9]*(_[A-Z0-9]+)*");
+    private static final Pattern SEGMENT = Pattern.compile("^[a-zA-Z][a-zA-Z0-9._-]*$");
+    private static final Pattern PARAM_SEGMENT = Pattern.compile("^\\{[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*}$");
+    private static final Pattern PARAM_REGEX_SEGMENT =
+            Pattern.compile("^\\{[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*(" + Pattern.quote(":.+") + "|"
+                    + Pattern.quote(":.*") + ")}$");
+
+    // one character of each class the patterns distinguish, and one that none of them accepts
+    private static final String CLASSES = "aA0-_.$";
+    // the characters just inside and just outside the bounds of each range the patterns use
+    private static final String BOUNDS = "azAZ09`{@[/:-_.";
+    private static final String PATH_CLASSES = "aB0.-{}:+*";
+
+    private static final List<String> NAME_FRAGMENTS = Arrays.asList(
+            "a", "z", "b1", "0", "9", "A", "Z", "Ab", "AB", "ABC", "-", "-a", "-ab", "_", "_a", "_A", "__", ".", ".a",
+            "Foo", "Bar2", "x", "y", "$");
+    private static final List<String> PATH_FRAGMENTS = Arrays.asList(
+            "{", "}", "a", "B", "0", "Id", ":", ".", "+", "*", ":.+", ":.*", "-", "_", "foo", "Bar");
+
+    @Test
+    public void fieldNameCase_exhaustive() {
+        assertAllAgree(strings(CLASSES, 6), NameScannersTest::fieldNameCaseAgrees);
+        assertAllAgree(strings(BOUNDS, 4), NameScannersTest::fieldNameCaseAgrees);
+    }
+
+    @Test
+    public void fieldNameCase_random() {
+        assertAllAgree(randomStrings(NAME_FRAGMENTS, 1), NameScannersTest::fieldNameCaseAgrees);
+    }
+
+    @Test
+    public void fieldNameCase_examples() {
+        assertThat(NameScanners.fieldNameCase("fooBar")).contains(CaseConverter.Case.LOWER_CAMEL_CASE);
+        assertThat(NameScanners.fieldNameCase("foo")).contains(CaseConverter.Case.LOWER_CAMEL_CASE);
+        assertThat(NameScanners.fieldNameCase("foo-bar")).contains(CaseConverter.Case.KEBAB_CASE);
+        assertThat(NameScanners.fieldNameCase("foo_bar")).contains(CaseConverter.Case.SNAKE_CASE);
+        assertThat(NameScanners.fieldNameCase("foo-bar_baz")).isEmpty();
+        assertThat(NameScanners.fieldNameCase("fooBar-baz")).isEmpty();
+        assertThat(NameScanners.fieldNameCase("FooBar")).isEmpty();
+        assertThat(NameScanners.fieldNameCase("fooBARBaz")).isEmpty();
+
+        assertThat(NameScanners.isFieldNameInCase("foo", CaseConverter.Case.SNAKE_CASE)).isTrue();
+        assertThat(NameScanners.isFieldNameInCase("fooBar", CaseConverter.Case.SNAKE_CASE)).isFalse();
+    }
+
+    @Test
+    public void upperCamelCase() {
+        assertMatchesPattern(TYPE_NAME, NameScanners::isUpperCamelCase, "aA0-_$", 7);
+        assertMatchesPattern(ERROR_NAMESPACE, NameScanners::isUpperCamelCase, "aA0-_$", 7);
+    }
+
+    @Test
+    public void namespace() {
+        assertMatchesPattern(NAMESPACE, NameScanners::isNamespace, "aA0-_.$", 6);
+    }
+
+    @Test
+    public void conjurePackage() {
+        assertMatchesPattern(PACKAGE, NameScanners::isPackage, "aA0._-", 7);
+    }
+
+    @Test
+    public void parameterName() {
+        assertMatchesPattern(PARAMETER_NAME, NameScanners::isParameterName, "aA0_-", 7);
+    }
+
+    @Test
+    public void headerName() {
+        assertMatchesPattern(HEADER_NAME, NameScanners::isHeaderName, "aA0_-", 7);
+    }
+
+    @Test
+    public void enumValue() {
+        assertMatchesPattern(ENUM_VALUE, NameScanners::isEnumValue, "aA0_-", 7);
+    }
+
+    @Test
+    public void pathSegment() {
+        Predicate<String> segment = name -> SEGMENT.matcher(name).matches()
+                || PARAM_SEGMENT.matcher(name).matches()
+                || PARAM_REGEX_SEGMENT.matcher(name).matches();
+        Predicate<String> agrees = name -> segment.test(name) == NameScanners.isPathSegment(name);
+        assertAllAgree(strings(PATH_CLASSES, 6), agrees);
+        assertAllAgree(strings(BOUNDS, 4), agrees);
+        assertAllAgree(randomStrings(PATH_FRAGMENTS, 2), agrees);
+
+        assertThat(NameScanners.isPathSegment("{fooBar:.+}")).isTrue();
+        assertThat(NameScanners.isPathSegment("{fooBar:.?}")).isFalse();
+    }
+
+    private static void assertMatchesPattern(
+            Pattern pattern, Predicate<String> scanner, String classes, int maxLength) {
+        Predicate<String> agrees = name -> pattern.matcher(name).matches() == scanner.test(name);
+        assertAllAgree(strings(classes, maxLength), agrees);
+        assertAllAgree(strings(BOUNDS, 4), agrees);
+        assertAllAgree(randomStrings(NAME_FRAGMENTS, pattern.pattern().hashCode()), agrees);
+    }
+
+    private static boolean fieldNameCaseAgrees(String name) {
+        Optional<CaseConverter.Case> expected = Arrays.stream(CaseConverter.Case.values())
+                .filter(nameCase -> nameCase.getPattern().matcher(name).matches())
+                .findFirst();
+        if (!expected.equals(NameScanners.fieldNameCase(name))) {
+            return false;
+        }
+        return Arrays.stream(CaseConverter.Case.values()).allMatch(nameCase ->
+                nameCase.getPattern().matcher(name).matches() == NameScanners.isFieldNameInCase(name, nameCase));
+    }
+
+    private static void assertAllAgree(Consumer<Consumer<String>> strings, Predicate<String> agrees) {
+        List<String> disagreements = new ArrayList<>();
+        strings.accept(name -> {
+            if (!agrees.test(name)) {
+                disagreements.add(name);
+            }
+        });
+        assertThat(disagreements).isEmpty();
+    }
+
+    /** All strings over the given alphabet of at most the given length, including the empty string. */
+    private static Consumer<Consumer<String>> strings(String alphabet, int maxLength) {
+        return consumer -> appendAll(new StringBuilder(), alphabet, maxLength, consumer);
+    }
+
+    private static void appendAll(StringBuilder prefix, String alphabet, int maxLength, Consumer<String> consumer) {
+        consumer.accept(prefix.toString());
+        if (prefix.length() == maxLength) {
+            return;
+        }
+        for (int i = 0; i < alphabet.length(); i++) {
+            prefix.append(alphabet.charAt(i));
+            appendAll(prefix, alphabet, maxLength, consumer);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    /**
+     * Longer strings than the exhaustive enumeration reaches, concatenated from fragments that are likely to form
+     * valid names and then occasionally mutated by a random printable character.
+     */
+    private static Consumer<Consumer<String>> randomStrings(List<String> fragments, long seed) {
+        return consumer -> {
+            Random random = new Random(seed);
+            for (int i = 0; i < 100_000; i++) {
+                StringBuilder name = new StringBuilder();
+                int count = 1 + random.nextInt(8);
+                for (int j = 0; j < count; j++) {
+                    name.append(fragments.get(random.nextInt(fragments.size())));
+                }
+                if (random.nextInt(4) == 0) {
+                    name.setCharAt(random.nextInt(name.length()), (char) (' ' + random.nextInt(95)));
+                }
+                consumer.accept(name.toString());
+            }
+        };
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.ArgumentName;
+import com.palantir.conjure.spec.BodyParameterType;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.ParameterType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.SetType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.spec.UnionDefinition;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class TypeDependencyGraphTest {
+    private static final TypeName A = TypeName.of("A", "test");
+    private static final TypeName B = TypeName.of("B", "test");
+    private static final TypeName C = TypeName.of("C", "test");
+    private static final TypeName D = TypeName.of("D", "test");
+    private static final TypeName E = TypeName.of("E", "test");
+    private static final TypeName UNION = TypeName.of("Union", "test");
+    private static final TypeName ALIAS = TypeName.of("Alias", "test");
+    private static final TypeName ERROR = TypeName.of("Error", "test");
+    private static final TypeName SERVICE = TypeName.of("Service", "test");
+
+    private final TypeDependencyGraph graph = TypeDependencyGraph.of(ConjureDefinition.builder()
+            .version(1)
+            // A and B are mutually recursive through containers
+            .types(object(A,
+                    Type.optional(OptionalType.of(Type.list(ListType.of(Type.reference(B))))),
+                    Type.map(MapType.of(Type.reference(C), Type.reference(D)))))
+            .types(object(B, Type.reference(A)))
+            .types(object(C))
+            .types(object(D))
+            .types(object(E))
+            .types(TypeDefinition.union(UnionDefinition.builder()
+                    .typeName(UNION)
+                    .union(field(Type.reference(A)))
+                    .union(field(Type.external(ExternalReference.builder()
+                            .externalReference(TypeName.of("External", "com.external"))
+                            .fallback(Type.reference(E))
+                            .build())))
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(ALIAS)
+                    .alias(Type.set(SetType.of(Type.reference(A))))
+                    .build()))
+            .errors(ErrorDefinition.builder()
+                    .errorName(ERROR)
+                    .namespace(ErrorNamespace.of("Test"))
+                    .code(ErrorCode.INTERNAL)
+                    .unsafeArgs(field(Type.reference(C)))
+                    .build())
+            .services(ServiceDefinition.builder()
+                    .serviceName(SERVICE)
+                    .endpoints(EndpointDefinition.builder()
+                            .endpointName(EndpointName.of("post"))
+                            .httpMethod(HttpMethod.POST)
+                            .httpPath(HttpPath.of("/post"))
+                            .args(ArgumentDefinition.builder()
+                                    .argName(ArgumentName.of("body"))
+                                    .type(Type.reference(ALIAS))
+                                    .paramType(ParameterType.body(BodyParameterType.of()))
+                                    .build())
+                            .returns(Type.reference(UNION))
+                            .build())
+                    .build())
+            .build());
+
+    @Test
+    public void testDependencies() {
+        assertThat(graph.dependencies(A)).containsExactly(B, C, D);
+        assertThat(graph.dependencies(UNION)).containsExactly(A, E);
+        assertThat(graph.dependencies(ALIAS)).containsExactly(A);
+        assertThat(graph.dependencies(ERROR)).containsExactly(C);
+        assertThat(graph.dependencies(SERVICE)).containsExactly(ALIAS, UNION);
+        assertThat(graph.dependencies(E)).isEmpty();
+        assertThat(graph.nodes()).containsExactly(A, B, C, D, E, UNION, ALIAS, ERROR, SERVICE);
+    }
+
+    @Test
+    public void testDependents() {
+        assertThat(graph.dependents(A)).containsExactlyInAnyOrder(B, UNION, ALIAS);
+        assertThat(graph.dependents(C)).containsExactlyInAnyOrder(A, ERROR);
+        assertThat(graph.dependents(SERVICE)).isEmpty();
+    }
+
+    @Test
+    public void testStronglyConnectedComponents() {
+        List<Set<TypeName>> components = graph.stronglyConnectedComponents();
+        assertThat(components).contains(ImmutableSet.of(A, B), ImmutableSet.of(C), ImmutableSet.of(SERVICE));
+        assertThat(components).hasSize(8);
+
+        List<TypeName> order = graph.topologicalOrder();
+        assertThat(order).containsExactlyInAnyOrderElementsOf(graph.nodes());
+        for (TypeName node : graph.nodes()) {
+            for (TypeName dependency : graph.dependencies(node)) {
+                if (!component(components, node).contains(dependency)) {
+                    assertThat(order.indexOf(dependency)).isLessThan(order.indexOf(node));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTransitiveClosures() {
+        assertThat(graph.transitiveDependencies(ImmutableList.of(SERVICE)))
+                .containsExactlyInAnyOrder(SERVICE, ALIAS, UNION, A, B, C, D, E);
+        assertThat(graph.transitiveDependencies(ImmutableList.of(ERROR))).containsExactlyInAnyOrder(ERROR, C);
+        assertThat(graph.transitiveDependents(ImmutableList.of(C)))
+                .containsExactlyInAnyOrder(C, A, B, ERROR, UNION, ALIAS, SERVICE);
+        assertThat(graph.transitiveDependents(ImmutableList.of(E))).containsExactlyInAnyOrder(E, UNION, SERVICE);
+    }
+
+    @Test
+    public void testReferencesOfType() {
+        assertThat(TypeDependencyGraph.references(Type.map(MapType.of(
+                Type.primitive(PrimitiveType.STRING),
+                Type.list(ListType.of(Type.optional(OptionalType.of(Type.reference(A)))))))))
+                .containsExactly(A);
+    }
+
+    private static Set<TypeName> component(List<Set<TypeName>> components, TypeName node) {
+        return components.stream().filter(component -> component.contains(node)).findFirst().get();
+    }
+
+    private static TypeDefinition object(TypeName name, Type... fieldTypes) {
+        ObjectDefinition.Builder builder = ObjectDefinition.builder().typeName(name);
+        for (Type fieldType : fieldTypes) {
+            builder.fields(field(fieldType));
+        }
+        return TypeDefinition.object(builder.build());
+    }
+
+    private static FieldDefinition field(Type type) {
+        return FieldDefinition.builder()
+                .fieldName(FieldName.of("field"))
+                .type(type)
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.visitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.either.Either;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.AbstractMap;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class DealiasingTypeVisitorTest {
+    private static final TypeName OBJECT = TypeName.of("Object", "test");
+    private static final TypeName ALIAS_TO_OBJECT = TypeName.of("AliasToObject", "test");
+    private static final TypeName ALIAS_TO_ALIAS = TypeName.of("AliasToAlias", "test");
+    private static final TypeName ALIAS_TO_LIST = TypeName.of("AliasToList", "test");
+    private static final TypeName ALIAS_TO_EXTERNAL = TypeName.of("AliasToExternal", "test");
+    private static final TypeName LOOP_ONE = TypeName.of("LoopOne", "test");
+    private static final TypeName LOOP_TWO = TypeName.of("LoopTwo", "test");
+    private static final TypeName UNKNOWN = TypeName.of("Unknown", "test");
+
+    private static final TypeDefinition OBJECT_DEF = TypeDefinition.object(
+            ObjectDefinition.of(OBJECT, ImmutableList.of(), Documentation.of("")));
+    private static final Type LIST = Type.list(ListType.of(Type.reference(OBJECT)));
+
+    private final DealiasingTypeVisitor visitor = new DealiasingTypeVisitor(
+            ImmutableMap.<TypeName, TypeDefinition>builder()
+                    .put(OBJECT, OBJECT_DEF)
+                    .put(ALIAS_TO_OBJECT, alias(ALIAS_TO_OBJECT, Type.reference(OBJECT)))
+                    .put(ALIAS_TO_ALIAS, alias(ALIAS_TO_ALIAS, Type.reference(ALIAS_TO_OBJECT)))
+                    .put(ALIAS_TO_LIST, alias(ALIAS_TO_LIST, LIST))
+                    .put(ALIAS_TO_EXTERNAL, alias(ALIAS_TO_EXTERNAL, Type.external(ExternalReference.builder()
+                            .externalReference(TypeName.of("External", "ext"))
+                            .fallback(Type.primitive(PrimitiveType.STRING))
+                            .build())))
+                    .put(LOOP_ONE, alias(LOOP_ONE, Type.reference(LOOP_TWO)))
+                    .put(LOOP_TWO, alias(LOOP_TWO, Type.reference(LOOP_ONE)))
+                    .put(UNKNOWN, alias(UNKNOWN, Type.reference(TypeName.of("Missing", "test"))))
+                    .build());
+
+    @Test
+    public void testResolvesAliasChains() {
+        assertThat(left(visitor.dealias(Type.reference(OBJECT)))).isEqualTo(OBJECT_DEF);
+        assertThat(left(visitor.dealias(Type.reference(ALIAS_TO_ALIAS)))).isEqualTo(OBJECT_DEF);
+        assertThat(right(visitor.dealias(Type.reference(ALIAS_TO_LIST)))).isEqualTo(LIST);
+        assertThat(right(visitor.dealias(Type.reference(ALIAS_TO_EXTERNAL))))
+                .isEqualTo(Type.primitive(PrimitiveType.STRING));
+        assertThat(right(visitor.dealias(LIST))).isEqualTo(LIST);
+    }
+
+    @Test
+    public void testLookupsAreMemoized() {
+        assertThat(visitor.dealias(Type.reference(ALIAS_TO_ALIAS)))
+                .isSameAs(visitor.dealias(Type.reference(ALIAS_TO_OBJECT)));
+    }
+
+    @Test
+    public void testUnresolvableReferencesFailOnLookup() {
+        assertThatThrownBy(() -> visitor.dealias(Type.reference(UNKNOWN)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Referenced TypeDefinition not found in map of types for TypeName");
+        assertThatThrownBy(() -> visitor.dealias(Type.reference(LOOP_ONE)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive alias: LoopOne -> LoopTwo -> LoopOne");
+        // failures are not remembered
+        assertThatThrownBy(() -> visitor.dealias(Type.reference(LOOP_TWO)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive alias: LoopTwo -> LoopOne -> LoopTwo");
+    }
+
+    @Test
+    public void testCreationDoesNotReadTypes() {
+        new DealiasingTypeVisitor(new AbstractMap<TypeName, TypeDefinition>() {
+            @Override
+            public Set<Entry<TypeName, TypeDefinition>> entrySet() {
+                throw new AssertionError("Types must only be read when dealiasing");
+            }
+
+            @Override
+            public TypeDefinition get(Object key) {
+                throw new AssertionError("Types must only be read when dealiasing");
+            }
+        });
+    }
+
+    private static TypeDefinition alias(TypeName name, Type target) {
+        return TypeDefinition.alias(AliasDefinition.builder().typeName(name).alias(target).build());
+    }
+
+    private static TypeDefinition left(Either<TypeDefinition, Type> either) {
+        return either.fold(Function.identity(), type -> null);
+    }
+
+    private static Type right(Either<TypeDefinition, Type> either) {
+        return either.fold(definition -> null, Function.identity());
+    }
+}
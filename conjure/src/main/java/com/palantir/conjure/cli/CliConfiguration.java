@@ -16,26 +16,70 @@
 
 package com.palantir.conjure.cli;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.ConjureDefinitionPruner;
+import com.palantir.conjure.parser.CompileTrace;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
 
 @Value.Immutable
+@JsonSerialize(as = ImmutableCliConfiguration.class)
+@JsonDeserialize(as = ImmutableCliConfiguration.class)
 public abstract class CliConfiguration {
     abstract Collection<File> inputFiles();
 
     abstract File outputIrFile();
 
+    /** The directory caching the translation of each input file across compilations, if any. */
+    abstract Optional<File> cacheDir();
+
+    /** The file to which to write the routing table of all services, if any; see {@link RoutesWriter}. */
+    abstract Optional<File> routesFile();
+
+    /** The file to which to write a trace of the phases of each compilation, if any; see {@link CompileTrace}. */
+    abstract Optional<File> traceFile();
+
+    /**
+     * Globs of the services to which to restrict the IR, along with the types they reference; see
+     * {@link ConjureDefinitionPruner}.
+     */
+    abstract List<String> includeServices();
+
+    /** Globs of the packages whose services, errors and types to restrict the IR to, along with the types they need. */
+    abstract List<String> includePackages();
+
+    /** Whether to write the IR without pretty-printing. */
+    @Value.Default
+    boolean compact() {
+        return false;
+    }
+
     static Builder builder() {
         return new Builder();
     }
 
+    /** This configuration with all paths resolved against the working directory of this process. */
+    CliConfiguration withAbsolutePaths() {
+        return builder()
+                .from(this)
+                .inputFiles(inputFiles().stream().map(File::getAbsoluteFile).collect(Collectors.toList()))
+                .outputIrFile(outputIrFile().getAbsoluteFile())
+                .cacheDir(cacheDir().map(File::getAbsoluteFile))
+                .routesFile(routesFile().map(File::getAbsoluteFile))
+                .traceFile(traceFile().map(File::getAbsoluteFile))
+                .build();
+    }
+
     static CliConfiguration create(String input, String outputIrFile) {
         File inputFile = new File(input);
 
@@ -57,7 +101,8 @@ public abstract class CliConfiguration {
     private static Collection<File> resolveInputFiles(File input) throws IOException {
         final Collection<File> inputFiles;
         if (input.isDirectory()) {
-            try (Stream<Path> fileStream = Files.find(input.toPath(), 999, (path, bfa) -> bfa.isRegularFile())) {
+            try (CompileTrace.Span span = CompileTrace.span("walk input directory", "directory", input);
+                    Stream<Path> fileStream = Files.find(input.toPath(), 999, (path, bfa) -> bfa.isRegularFile())) {
                 inputFiles = fileStream
                         .map(Path::toFile)
                         .collect(Collectors.toList());
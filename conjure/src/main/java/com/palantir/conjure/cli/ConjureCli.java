@@ -18,18 +18,29 @@ package com.palantir.conjure.cli;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
+import com.palantir.conjure.ConjureDefinitionPruner;
 import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.TranslationCache;
+import com.palantir.conjure.parser.CompileContext;
+import com.palantir.conjure.parser.CompileTrace;
+import com.palantir.conjure.parser.ParseCache;
 import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import picocli.CommandLine;
 
 @CommandLine.Command(
         name = "conjure",
         description = "CLI to generate Conjure IR from Conjure YML definitions.",
         mixinStandardHelpOptions = true,
-        subcommands = { ConjureCli.CompileCommand.class })
+        subcommands = { ConjureCli.CompileCommand.class, ConjureCli.DaemonCommand.class })
 public final class ConjureCli implements Runnable {
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .registerModule(new Jdk8Module())
@@ -60,25 +71,166 @@ public final class ConjureCli implements Runnable {
                 index = "1")
         private String output;
 
+        @CommandLine.Option(names = "--compact",
+                description = "Write the IR without whitespace or line breaks.")
+        private boolean compact;
+
+        @CommandLine.Option(names = "--routes-out",
+                description = "Also write a compact binary routing table of all endpoints to this file.")
+        private String routesOut;
+
+        @CommandLine.Option(names = "--trace",
+                description = "Also write a Chrome trace-event JSON file with the time spent in each phase, file and "
+                        + "type of the compilation, e.g., for chrome://tracing or Perfetto.")
+        private String trace;
+
+        @CommandLine.Option(names = "--cache-dir",
+                description = "Directory in which to cache the translation of each input file, such that subsequent "
+                        + "compilations only process files whose content or transitively imported content changed.")
+        private String cacheDir;
+
+        @CommandLine.Option(names = "--include-services", paramLabel = "<glob>",
+                description = "Only include the services whose name or qualified name matches this glob, e.g., "
+                        + "'*Service' or 'com.palantir.**.FooService', the errors in their packages, and the types "
+                        + "they reference. May be repeated.")
+        private List<String> includeServices = new ArrayList<>();
+
+        @CommandLine.Option(names = "--include-packages", paramLabel = "<glob>",
+                description = "Only include the services, errors and types in packages matching this glob, e.g., "
+                        + "'com.palantir.*', and the types they reference. May be repeated.")
+        private List<String> includePackages = new ArrayList<>();
+
+        @CommandLine.Option(names = "--watch",
+                description = "Compile, then watch the input for changes and recompile until interrupted.")
+        private boolean watch;
+
+        @CommandLine.Option(names = "--no-daemon",
+                description = "Compile in this process even if a conjure daemon is running.")
+        private boolean noDaemon;
+
         @Override
         public void run() {
-            CliConfiguration config = getConfiguration();
-            generate(config);
+            if (watch) {
+                try {
+                    new ConjureWatcher(new File(input), this::getConfiguration, System.out).run();
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to watch " + input, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+
+            // resolve the input files within the compilation's context, such that a trace includes the directory walk
+            CompileContext context = CompileContext.createForDefault(trace != null);
+            CliConfiguration config = context.call(this::getConfiguration);
+            // traced compilations run in this process, since a daemon cannot add to this process' trace
+            if (noDaemon || trace != null || !ConjureDaemon.tryCompile(ConjureDaemon.DEFAULT_PORT_FILE, config)) {
+                generate(config, context);
+            }
         }
 
         @VisibleForTesting
         static void generate(CliConfiguration config) {
-            ConjureDefinition definition = Conjure.parse(config.inputFiles());
-            try {
-                OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(config.outputIrFile(), definition);
+            generate(config, newContext(config));
+        }
+
+        private static void generate(CliConfiguration config, CompileContext context) {
+            compile(config, context, () -> config.cacheDir().isPresent()
+                    ? Conjure.parse(config.inputFiles(), config.cacheDir().get().toPath())
+                    : Conjure.parse(config.inputFiles()));
+        }
+
+        static ConjureDefinition generate(
+                CliConfiguration config, ParseCache parseCache, TranslationCache translationCache) {
+            return compile(config, newContext(config), () -> config.cacheDir().isPresent()
+                    ? Conjure.parse(config.inputFiles(), config.cacheDir().get().toPath(), parseCache, translationCache)
+                    : Conjure.parse(config.inputFiles(), parseCache, translationCache));
+        }
+
+        private static CompileContext newContext(CliConfiguration config) {
+            return CompileContext.createForDefault(config.traceFile().isPresent());
+        }
+
+        // compilations served concurrently by the daemon each record their metrics in a context of their own
+        private static ConjureDefinition compile(
+                CliConfiguration config, CompileContext context, Supplier<ConjureDefinition> compilation) {
+            ConjureDefinition definition = context.call(() -> write(config, compilation.get()));
+            context.mergeIntoDefault();
+            config.traceFile().ifPresent(traceFile -> context.trace().ifPresent(compileTrace -> {
+                try {
+                    compileTrace.write(traceFile);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to write trace to " + traceFile, e);
+                }
+            }));
+            return definition;
+        }
+
+        private static ConjureDefinition write(CliConfiguration config, ConjureDefinition compiledDefinition) {
+            ConjureDefinition definition = prune(config, compiledDefinition);
+            try (CompileTrace.Span span = CompileTrace.span("write IR", "file", config.outputIrFile())) {
+                ObjectWriter writer =
+                        config.compact() ? OBJECT_MAPPER.writer() : OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+                writer.writeValue(config.outputIrFile(), definition);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to serialize IR file to " + config.outputIrFile(), e);
             }
+            config.routesFile().ifPresent(routesFile -> {
+                try (CompileTrace.Span span = CompileTrace.span("write routes", "file", routesFile)) {
+                    RoutesWriter.write(definition, routesFile);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to write routing table to " + routesFile, e);
+                }
+            });
+            return definition;
+        }
+
+        private static ConjureDefinition prune(CliConfiguration config, ConjureDefinition definition) {
+            if (config.includeServices().isEmpty() && config.includePackages().isEmpty()) {
+                return definition;
+            }
+            try (CompileTrace.Span span = CompileTrace.span("prune IR")) {
+                return ConjureDefinitionPruner.prune(definition, config.includeServices(), config.includePackages());
+            }
         }
 
         @VisibleForTesting
         CliConfiguration getConfiguration() {
-            return CliConfiguration.create(input, output);
+            return CliConfiguration.builder()
+                    .from(CliConfiguration.create(input, output))
+                    .cacheDir(Optional.ofNullable(cacheDir).map(File::new))
+                    .routesFile(Optional.ofNullable(routesOut).map(File::new))
+                    .traceFile(Optional.ofNullable(trace).map(File::new))
+                    .includeServices(includeServices)
+                    .includePackages(includePackages)
+                    .compact(compact)
+                    .build();
+        }
+    }
+
+    @CommandLine.Command(name = "daemon",
+            description = "Run a resident compiler that serves the compile requests of other conjure invocations.",
+            mixinStandardHelpOptions = true,
+            usageHelpWidth = 120)
+    public static final class DaemonCommand implements Runnable {
+        @CommandLine.Option(names = "--stdio",
+                description = "Serve JSON-lines requests on stdin and write responses to stdout instead of "
+                        + "listening on a local socket.")
+        private boolean stdio;
+
+        @Override
+        public void run() {
+            ConjureDaemon daemon = new ConjureDaemon();
+            try {
+                if (stdio) {
+                    daemon.serve(System.in, System.out, Optional.empty());
+                } else {
+                    daemon.serve(ConjureDaemon.DEFAULT_PORT_FILE);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Conjure daemon failed", e);
+            }
         }
     }
 }
@@ -0,0 +1,252 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.conjure.defs.ConjureVersion;
+import com.palantir.conjure.defs.TranslationCache;
+import com.palantir.conjure.parser.ParseCache;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A resident compiler serving compile requests from other {@link ConjureCli} invocations, which thereby run with warm
+ * mappers, a warm JIT, and a {@link ParseCache} and {@link TranslationCache} shared across requests.
+ *
+ * <p>Requests and responses are JSON objects, one per line. A request holds the {@link CliConfiguration} to compile
+ * under {@code configuration}, with absolute paths only, and optionally the {@link ConjureVersion} of the client under
+ * {@code version}; the response is empty on success and holds the failure under {@code error} otherwise, along with
+ * the class of the exception under {@code errorType} if the compilation itself failed. The daemon either serves
+ * stdin/stdout, or listens on a loopback socket whose port it publishes in {@link #DEFAULT_PORT_FILE} along with a
+ * random token that socket requests must carry under {@code token}. On accepting a socket connection, the daemon first
+ * sends a greeting holding its version under {@code version}, and clients only use daemons of their own version.
+ */
+final class ConjureDaemon {
+    private static final Logger log = LoggerFactory.getLogger(ConjureDaemon.class);
+
+    static final Path DEFAULT_PORT_FILE = Paths.get(System.getProperty("user.home"), ".conjure", "daemon.port");
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    // a stale port file may name a port that some other process now listens on without ever responding
+    private static final int GREETING_TIMEOUT_MILLIS = 1000;
+    private static final int COMPILE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private final ParseCache parseCache = new ParseCache();
+    private final TranslationCache translationCache = new TranslationCache();
+
+    /** Serves the requests read from {@code in} until it is exhausted. */
+    void serve(InputStream in, OutputStream out, Optional<String> token) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            writer.write(ConjureCli.OBJECT_MAPPER.writeValueAsString(handle(line, token)));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /** Serves requests on a loopback socket until the process is terminated. */
+    void serve(Path portFile) throws IOException {
+        String token = new BigInteger(130, new SecureRandom()).toString(32);
+        ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("conjure-daemon-%d")
+                .setDaemon(true)
+                .build());
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writePortFile(portFile, server.getLocalPort(), token);
+            log.info("Conjure daemon listening on port {}", server.getLocalPort());
+            while (true) {
+                Socket socket = server.accept();
+                executor.execute(() -> {
+                    try (Socket connection = socket) {
+                        writeLine(connection.getOutputStream(), greeting());
+                        serve(connection.getInputStream(), connection.getOutputStream(), Optional.of(token));
+                    } catch (IOException e) {
+                        log.warn("Failed to serve connection", e);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(portFile);
+        }
+    }
+
+    /**
+     * Compiles the given configuration on the daemon publishing its port in the given file. Returns false if no daemon
+     * of this version is reachable, or if the compilation failed on the daemon, in which case the caller should
+     * compile by itself, e.g., to fail with the same exception as without a daemon.
+     */
+    static boolean tryCompile(Path portFile, CliConfiguration config) {
+        Optional<List<String>> portAndToken = readPortFile(portFile);
+        Optional<String> version = ConjureVersion.current();
+        if (!portAndToken.isPresent() || !version.isPresent()) {
+            return false;
+        }
+
+        JsonNode response;
+        try (Socket socket = new Socket()) {
+            int port = Integer.parseInt(portAndToken.get().get(0));
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(GREETING_TIMEOUT_MILLIS);
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String greeting = reader.readLine();
+            if (greeting == null) {
+                return false;
+            }
+            String daemonVersion = ConjureCli.OBJECT_MAPPER.readTree(greeting).path("version").asText();
+            if (!daemonVersion.equals(version.get())) {
+                log.debug("Conjure daemon runs version {} instead of {}, compiling locally",
+                        daemonVersion, version.get());
+                return false;
+            }
+
+            // the daemon may run in another working directory
+            ObjectNode request = ConjureCli.OBJECT_MAPPER.createObjectNode()
+                    .put("token", portAndToken.get().get(1))
+                    .put("version", version.get());
+            request.set("configuration", ConjureCli.OBJECT_MAPPER.valueToTree(config.withAbsolutePaths()));
+            writeLine(socket.getOutputStream(), request);
+
+            socket.setSoTimeout(COMPILE_TIMEOUT_MILLIS);
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (SocketTimeoutException e) {
+                throw new RuntimeException("Conjure daemon did not respond within " + COMPILE_TIMEOUT_MILLIS
+                        + "ms, compile with --no-daemon instead", e);
+            }
+            if (line == null) {
+                return false;
+            }
+            response = ConjureCli.OBJECT_MAPPER.readTree(line);
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Conjure daemon is not reachable, compiling locally", e);
+            return false;
+        }
+
+        // the exception's type and cause do not survive the response, so reproduce the failure locally
+        if (response.has("errorType")) {
+            log.debug("Conjure daemon failed to compile with {}: {}, compiling locally",
+                    response.get("errorType").asText(), response.path("error").asText());
+            return false;
+        }
+        if (response.has("error")) {
+            throw new RuntimeException(response.get("error").asText());
+        }
+        return true;
+    }
+
+    private ObjectNode handle(String line, Optional<String> token) {
+        ObjectNode response = ConjureCli.OBJECT_MAPPER.createObjectNode();
+        try {
+            JsonNode request = ConjureCli.OBJECT_MAPPER.readTree(line);
+            if (token.isPresent() && !MessageDigest.isEqual(
+                    token.get().getBytes(StandardCharsets.UTF_8),
+                    request.path("token").asText().getBytes(StandardCharsets.UTF_8))) {
+                return response.put("error", "Request does not carry the daemon's token");
+            }
+            if (request.has("version")
+                    && !ConjureVersion.current().map(request.get("version").asText()::equals).orElse(false)) {
+                return response.put("error", "Request is from another version of conjure than the daemon's");
+            }
+            CliConfiguration config =
+                    ConjureCli.OBJECT_MAPPER.treeToValue(request.path("configuration"), CliConfiguration.class);
+            if (!config.equals(config.withAbsolutePaths())) {
+                return response.put("error", "Request must only hold absolute paths: " + config);
+            }
+            ConjureCli.CompileCommand.generate(config, parseCache, translationCache);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to compile request", e);
+            response.put("error", e.getMessage() != null ? e.getMessage() : e.toString());
+            response.put("errorType", e.getClass().getName());
+        }
+        return response;
+    }
+
+    private static ObjectNode greeting() {
+        ObjectNode greeting = ConjureCli.OBJECT_MAPPER.createObjectNode();
+        ConjureVersion.current().ifPresent(version -> greeting.put("version", version));
+        return greeting;
+    }
+
+    private static void writeLine(OutputStream out, JsonNode message) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(ConjureCli.OBJECT_MAPPER.writeValueAsString(message));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private static void writePortFile(Path portFile, int port, String token) throws IOException {
+        Files.createDirectories(portFile.getParent());
+        Files.deleteIfExists(portFile);
+        // restrict access before writing the token, where the file system supports it
+        try {
+            Files.createFile(portFile,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(portFile);
+        }
+        Files.write(portFile, (port + " " + token).getBytes(StandardCharsets.UTF_8));
+        portFile.toFile().deleteOnExit();
+    }
+
+    private static Optional<List<String>> readPortFile(Path portFile) {
+        if (!Files.isRegularFile(portFile)) {
+            return Optional.empty();
+        }
+        try {
+            List<String> portAndToken = Splitter.on(' ')
+                    .splitToList(new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).trim());
+            return portAndToken.size() == 2 ? Optional.of(portAndToken) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
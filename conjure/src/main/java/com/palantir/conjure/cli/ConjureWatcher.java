@@ -0,0 +1,188 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.palantir.conjure.defs.TranslationCache;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compiles the given input whenever it changes, until interrupted. A directory input is watched recursively; for a
+ * file input, its directory is watched. The directories of imported files are watched as well, once a build has
+ * found them. Bursts of events are coalesced into a single rebuild, which reuses the parsed and translated files
+ * retained from previous builds, such that only changed files and the files importing them are processed again;
+ * deleted and renamed files are evicted from the retained files. Since these retain every file, builds do not use the
+ * cache directory of the configuration, if any.
+ */
+final class ConjureWatcher {
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final File input;
+    private final Supplier<CliConfiguration> configuration;
+    private final PrintStream out;
+    private final ParseCache parseCache = new ParseCache();
+    private final TranslationCache translationCache = new TranslationCache();
+    private final Set<Path> watchedDirectories = new LinkedHashSet<>();
+
+    /**
+     * Creates a watcher of the given input. The configuration supplier is called on every rebuild, such that added
+     * and removed input files are picked up.
+     */
+    ConjureWatcher(File input, Supplier<CliConfiguration> configuration, PrintStream out) {
+        this.input = input;
+        this.configuration = configuration;
+        this.out = out;
+    }
+
+    void run() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            if (input.isDirectory()) {
+                registerRecursively(watchService, input.toPath());
+            } else {
+                register(watchService, input.getAbsoluteFile().getParentFile().toPath());
+            }
+
+            // don't rebuild in response to our own writes
+            CliConfiguration initialConfig = configuration.get();
+            Path outputIrFile = initialConfig.outputIrFile().getAbsoluteFile().toPath();
+            Optional<Path> routesFile = initialConfig.routesFile().map(file -> file.getAbsoluteFile().toPath());
+            Optional<Path> traceFile = initialConfig.traceFile().map(file -> file.getAbsoluteFile().toPath());
+
+            rebuild(Collections.emptySet());
+            watchImportedFiles(watchService);
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changes = awaitChanges(watchService);
+                changes.removeIf(path -> path.toAbsolutePath().equals(outputIrFile)
+                        || routesFile.map(path.toAbsolutePath()::equals).orElse(false)
+                        || traceFile.map(path.toAbsolutePath()::equals).orElse(false));
+                if (!changes.isEmpty()) {
+                    rebuild(changes);
+                    watchImportedFiles(watchService);
+                }
+            }
+        }
+    }
+
+    @VisibleForTesting
+    ParseCache parseCache() {
+        return parseCache;
+    }
+
+    /** Blocks until a change occurs, then returns all changes until none occur for {@link #DEBOUNCE_MILLIS}. */
+    private Set<Path> awaitChanges(WatchService watchService) throws IOException, InterruptedException {
+        Set<Path> changes = new LinkedHashSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    changes.add(directory);
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && input.isDirectory()
+                        && Files.isDirectory(path)) {
+                    registerRecursively(watchService, path);
+                }
+                changes.add(path);
+            }
+            if (!key.reset()) {
+                // the directory is gone; watch it again should it be recreated
+                watchedDirectories.remove(directory.toAbsolutePath().normalize());
+            }
+            key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return changes;
+    }
+
+    private void rebuild(Set<Path> changes) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        // modified files are detected by the parse cache itself, but the entries of removed files would linger
+        changes.stream().filter(path -> !Files.exists(path)).forEach(parseCache::invalidate);
+        try {
+            // an incremental compilation would not parse unchanged files, whose imports could then not be watched
+            CliConfiguration config = CliConfiguration.builder()
+                    .from(configuration.get())
+                    .cacheDir(Optional.empty())
+                    .build();
+            ConjureDefinition definition = ConjureCli.CompileCommand.generate(config, parseCache, translationCache);
+            out.printf("Compiled %d files into %s in %d ms after %d changes: %d types, %d errors, %d services%n",
+                    config.inputFiles().size(),
+                    config.outputIrFile(),
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS),
+                    changes.size(),
+                    definition.getTypes().size(),
+                    definition.getErrors().size(),
+                    definition.getServices().size());
+        } catch (RuntimeException e) {
+            out.printf("Compilation failed in %d ms after %d changes: %s%n",
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS), changes.size(), e.getMessage());
+        }
+    }
+
+    // imports may reach outside the watched input, e.g., into a sibling directory of shared definitions
+    private void watchImportedFiles(WatchService watchService) throws IOException {
+        for (Path file : parseCache.files()) {
+            Path directory = file.getParent();
+            if (directory != null && Files.isDirectory(directory)) {
+                register(watchService, directory);
+            }
+        }
+    }
+
+    private void registerRecursively(WatchService watchService, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(watchService, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(WatchService watchService, Path directory) throws IOException {
+        if (!watchedDirectories.add(directory.toAbsolutePath().normalize())) {
+            return;
+        }
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.base.Preconditions;
+import com.palantir.conjure.defs.validator.HttpPathTemplate;
+import com.palantir.conjure.defs.validator.HttpRouteTrie;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the HTTP routes of all services of a {@link ConjureDefinition} as a compact routing trie that servers can
+ * map into memory and route requests with directly, instead of rebuilding their routing structures at startup. The
+ * output only depends on the definition, so compiling the same definition twice yields identical files.
+ * <p>
+ * All values are unsigned big-endian 32-bit integers, so that every record has a fixed size and can be addressed by
+ * index; {@code NONE} ({@code 0xFFFFFFFF}) marks an absent index. The file consists of the following sections:
+ * <ol>
+ *     <li>header: magic {@code CJRT}, format version, and the number of strings, string bytes, methods, endpoints,
+ *     captures, nodes and edges</li>
+ *     <li>strings: {@code stringCount + 1} byte offsets into the string data, followed by the UTF-8 string data</li>
+ *     <li>methods: {@code (method string, root node)}, sorted by method</li>
+ *     <li>endpoints: {@code (service name string, endpoint name string, path string, first capture, capture count)}
+ *     </li>
+ *     <li>captures: the path parameter name strings of all endpoints, in path order</li>
+ *     <li>nodes: {@code (endpoint or NONE, path parameter child node or NONE, flags, first edge, edge count)}, where
+ *     flag {@code 1} marks a path parameter such as {@code {path:.+}} that may match multiple segments</li>
+ *     <li>edges: {@code (literal segment string, child node)}, contiguous per node and sorted by segment</li>
+ * </ol>
+ * Paths are split into segments with {@link HttpPathTemplate}, i.e., the same way they are validated.
+ */
+final class RoutesWriter {
+    static final int MAGIC = 0x434A5254; // "CJRT"
+    static final int FORMAT_VERSION = 1;
+    static final int NONE = -1;
+    static final int FLAG_MATCHES_MULTIPLE_SEGMENTS = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final List<EndpointDefinition> endpoints = new ArrayList<>();
+    private final List<Integer> endpointServices = new ArrayList<>();
+    private final List<HttpRouteTrie.Node<Integer>> nodes = new ArrayList<>();
+    private final Map<HttpRouteTrie.Node<Integer>, Integer> nodeIndexes = new IdentityHashMap<>();
+    private final HttpRouteTrie<Integer> routes = new HttpRouteTrie<>();
+
+    private RoutesWriter() {}
+
+    static void write(ConjureDefinition definition, File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE)) {
+            write(definition, out);
+        }
+    }
+
+    static void write(ConjureDefinition definition, OutputStream out) throws IOException {
+        RoutesWriter writer = new RoutesWriter();
+        writer.addRoutes(definition);
+        writer.writeTo(new DataOutputStream(out));
+    }
+
+    private void addRoutes(ConjureDefinition definition) {
+        for (ServiceDefinition service : definition.getServices()) {
+            int serviceName = intern(service.getServiceName().getName());
+            for (EndpointDefinition endpoint : service.getEndpoints()) {
+                routes.add(endpoint.getHttpMethod().get(),
+                        HttpPathTemplate.of(endpoint.getHttpPath().get()), endpoints.size());
+                endpoints.add(endpoint);
+                endpointServices.add(serviceName);
+            }
+        }
+
+        // number the nodes breadth-first, such that all nodes of a method and all children of a node are adjacent
+        routes.roots().keySet().forEach(this::intern);
+        Deque<HttpRouteTrie.Node<Integer>> pending = new ArrayDeque<>(routes.roots().values());
+        while (!pending.isEmpty()) {
+            HttpRouteTrie.Node<Integer> node = pending.poll();
+            nodeIndexes.put(node, nodes.size());
+            nodes.add(node);
+            node.literals().keySet().forEach(this::intern);
+            pending.addAll(node.literals().values());
+            node.variable().ifPresent(pending::add);
+        }
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+        List<Integer> captures = new ArrayList<>();
+        List<int[]> endpointRecords = new ArrayList<>(endpoints.size());
+        for (int i = 0; i < endpoints.size(); i++) {
+            EndpointDefinition endpoint = endpoints.get(i);
+            HttpPathTemplate template = HttpPathTemplate.of(endpoint.getHttpPath().get());
+            int firstCapture = captures.size();
+            template.variables().forEach(variable -> captures.add(intern(variable.get())));
+            endpointRecords.add(new int[] {
+                    endpointServices.get(i),
+                    intern(endpoint.getEndpointName().get()),
+                    intern(template.path()),
+                    firstCapture,
+                    captures.size() - firstCapture});
+        }
+        int edgeCount = nodes.stream().mapToInt(node -> node.literals().size()).sum();
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        List<Integer> stringOffsets = new ArrayList<>(strings.size() + 1);
+        for (String string : strings.keySet()) {
+            stringOffsets.add(stringData.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringData.write(bytes, 0, bytes.length);
+        }
+        stringOffsets.add(stringData.size());
+
+        writeInts(out, MAGIC, FORMAT_VERSION, strings.size(), stringData.size(), routes.roots().size(),
+                endpoints.size(), captures.size(), nodes.size(), edgeCount);
+
+        for (int offset : stringOffsets) {
+            out.writeInt(offset);
+        }
+        stringData.writeTo(out);
+
+        for (Map.Entry<String, HttpRouteTrie.Node<Integer>> root : routes.roots().entrySet()) {
+            writeInts(out, strings.get(root.getKey()), nodeIndexes.get(root.getValue()));
+        }
+
+        for (int[] record : endpointRecords) {
+            writeInts(out, record);
+        }
+        for (int capture : captures) {
+            out.writeInt(capture);
+        }
+
+        int firstEdge = 0;
+        for (HttpRouteTrie.Node<Integer> node : nodes) {
+            Preconditions.checkState(node.endpoints().size() <= 1,
+                    "Route %s is defined by multiple endpoints", node);
+            writeInts(out,
+                    node.endpoints().isEmpty() ? NONE : node.endpoints().get(0),
+                    node.variable().map(nodeIndexes::get).orElse(NONE),
+                    node.matchesMultipleSegments() ? FLAG_MATCHES_MULTIPLE_SEGMENTS : 0,
+                    firstEdge,
+                    node.literals().size());
+            firstEdge += node.literals().size();
+        }
+        for (HttpRouteTrie.Node<Integer> node : nodes) {
+            for (Map.Entry<String, HttpRouteTrie.Node<Integer>> edge : node.literals().entrySet()) {
+                writeInts(out, strings.get(edge.getKey()), nodeIndexes.get(edge.getValue()));
+            }
+        }
+        out.flush();
+    }
+
+    private int intern(String string) {
+        return strings.computeIfAbsent(string, key -> strings.size());
+    }
+
+    private static void writeInts(DataOutputStream out, int... values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
@@ -19,9 +19,16 @@ package com.palantir.conjure.cli;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -55,6 +62,47 @@ public final class ConjureCliTest {
         assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
     }
 
+    @Test
+    public void parsesCompactOption() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--compact"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .compact(true)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void parsesRoutesOutOption() {
+        File routesFile = new File(folder.getRoot(), "routes.bin");
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(),
+                "--routes-out", routesFile.getAbsolutePath()};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .routesFile(routesFile)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void parsesIncludeOptions() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(),
+                "--include-services", "*Service", "--include-services", "test.api.Other",
+                "--include-packages", "com.palantir.**"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .includeServices(ImmutableList.of("*Service", "test.api.Other"))
+                .includePackages(ImmutableList.of("com.palantir.**"))
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
     @Test
     public void discoversFilesInDirectory() {
         String[] args = {"compile", folder.getRoot().getAbsolutePath(), outputFile.getAbsolutePath()};
@@ -109,6 +157,97 @@ public final class ConjureCliTest {
         assertThat(outputFile.isFile()).isTrue();
     }
 
+    @Test
+    public void writesTrace() throws IOException {
+        File traceFile = new File(folder.getRoot(), "trace.json");
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .traceFile(traceFile)
+                .build();
+        ConjureCli.CompileCommand.generate(configuration);
+
+        JsonNode trace = ConjureCli.OBJECT_MAPPER.readTree(traceFile);
+        List<String> spans = new ArrayList<>();
+        trace.path("traceEvents").forEach(event -> {
+            if (event.path("ph").asText().equals("X")) {
+                spans.add(event.path("name").asText());
+            }
+        });
+        assertThat(spans).contains(
+                "read YAML",
+                "resolve imports",
+                "parseObjects",
+                "parseType",
+                "parseService",
+                "EndpointDefinitionValidator.PATH_PARAM",
+                "ConjureDefinitionValidator.NO_RECURSIVE_TYPES",
+                "write IR");
+    }
+
+    @Test
+    public void writesPrettyOrCompactIr() throws IOException {
+        File input = new File("src/test/resources/test-service.yml");
+        ConjureDefinition definition = Conjure.parse(ImmutableList.of(input));
+        String expected = ConjureCli.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(definition);
+
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(input))
+                .outputIrFile(outputFile)
+                .build());
+        assertThat(new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8)).isEqualTo(expected);
+
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(input))
+                .outputIrFile(outputFile)
+                .compact(true)
+                .build());
+        assertThat(ConjureCli.OBJECT_MAPPER.readValue(outputFile, ConjureDefinition.class)).isEqualTo(definition);
+        assertThat(Files.readAllLines(outputFile.toPath())).hasSize(1);
+    }
+
+    @Test
+    public void compactIrParsesToPrettyIr() throws IOException {
+        String input = new File("src/test/resources/test-service.yml").getAbsolutePath();
+        File prettyFile = new File(folder.getRoot(), "pretty.json");
+        File compactFile = new File(folder.getRoot(), "compact.json");
+        CommandLine.run(new ConjureCli(), "compile", input, prettyFile.getAbsolutePath(), "--no-daemon");
+        CommandLine.run(new ConjureCli(), "compile", input, compactFile.getAbsolutePath(), "--no-daemon", "--compact");
+
+        ConjureDefinition pretty = ConjureCli.OBJECT_MAPPER.readValue(prettyFile, ConjureDefinition.class);
+        ConjureDefinition compact = ConjureCli.OBJECT_MAPPER.readValue(compactFile, ConjureDefinition.class);
+        assertThat(compact).isEqualTo(pretty);
+        assertThat(compactFile.length()).isLessThan(prettyFile.length());
+    }
+
+    @Test
+    public void prunesIrToIncludedServices() throws IOException {
+        File input = new File("src/test/resources/test-service.yml");
+        ConjureDefinition definition = Conjure.parse(ImmutableList.of(input));
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(input))
+                .outputIrFile(outputFile)
+                .includeServices(ImmutableList.of("Test*"))
+                .build());
+
+        ConjureDefinition pruned = ConjureCli.OBJECT_MAPPER.readValue(outputFile, ConjureDefinition.class);
+        assertThat(pruned.getServices()).isEqualTo(definition.getServices());
+        assertThat(definition.getTypes()).isNotEmpty();
+        assertThat(pruned.getTypes()).isEmpty();
+    }
+
+    @Test
+    public void throwsWhenIncludedServiceDoesNotExist() {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .includeServices(ImmutableList.of("Missing*"))
+                .build();
+        assertThatThrownBy(() -> ConjureCli.CompileCommand.generate(configuration))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No service matches the glob: Missing*");
+    }
+
     @Test
     public void throwsWhenInvalidDefinition() throws Exception {
         CliConfiguration configuration = CliConfiguration.builder()
@@ -0,0 +1,218 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.ConjureVersion;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class ConjureDaemonTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compilesRequests() throws IOException {
+        File outputFile = new File(folder.getRoot(), "conjureIr.json");
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml").getAbsoluteFile()))
+                .outputIrFile(outputFile)
+                .build();
+        ObjectNode request = ConjureCli.OBJECT_MAPPER.createObjectNode();
+        request.set("configuration", ConjureCli.OBJECT_MAPPER.valueToTree(configuration));
+        String requests = ConjureCli.OBJECT_MAPPER.writeValueAsString(request) + "\n{}\n";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ConjureDaemon().serve(
+                new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out, Optional.empty());
+
+        String[] responses = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(responses).hasSize(2);
+        assertThat(ConjureCli.OBJECT_MAPPER.readTree(responses[0]).has("error")).isFalse();
+        assertThat(outputFile).isFile();
+
+        JsonNode failure = ConjureCli.OBJECT_MAPPER.readTree(responses[1]);
+        assertThat(failure.has("error")).isTrue();
+        assertThat(failure.path("errorType").asText()).isNotEmpty();
+    }
+
+    @Test
+    public void rejectsRequestsWithoutToken() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ConjureDaemon().serve(
+                new ByteArrayInputStream("{}\n".getBytes(StandardCharsets.UTF_8)), out, Optional.of("token"));
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).contains("token");
+    }
+
+    @Test
+    public void rejectsRelativePaths() throws IOException {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(new File(folder.getRoot(), "conjureIr.json"))
+                .build();
+        ObjectNode request = ConjureCli.OBJECT_MAPPER.createObjectNode();
+        request.set("configuration", ConjureCli.OBJECT_MAPPER.valueToTree(configuration));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ConjureDaemon().serve(new ByteArrayInputStream(
+                ConjureCli.OBJECT_MAPPER.writeValueAsBytes(request)), out, Optional.empty());
+        assertThat(ConjureCli.OBJECT_MAPPER.readTree(out.toByteArray()).path("error").asText())
+                .startsWith("Request must only hold absolute paths");
+    }
+
+    @Test
+    public void rejectsRequestsFromOtherVersions() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ConjureDaemon().serve(new ByteArrayInputStream(
+                "{\"version\": \"other\"}\n".getBytes(StandardCharsets.UTF_8)), out, Optional.empty());
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).contains("another version");
+    }
+
+    @Test
+    public void doesNotForwardToSilentPort() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Path portFile = writePortFile(server.getLocalPort());
+            long start = System.nanoTime();
+            assertThat(ConjureDaemon.tryCompile(portFile, configuration())).isFalse();
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10);
+        }
+    }
+
+    @Test
+    public void doesNotForwardToDaemonOfOtherVersion() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Path portFile = writePortFile(server.getLocalPort());
+            Thread greeter = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    socket.getOutputStream().write("{\"version\": \"other\"}\n".getBytes(StandardCharsets.UTF_8));
+                    socket.getOutputStream().flush();
+                    socket.getInputStream().read();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            greeter.start();
+            assertThat(ConjureDaemon.tryCompile(portFile, configuration())).isFalse();
+            greeter.join();
+        }
+    }
+
+    @Test
+    public void doesNotForwardFailedCompilations() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Path portFile = writePortFile(server.getLocalPort());
+            Thread daemon = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    ObjectNode greeting = ConjureCli.OBJECT_MAPPER.createObjectNode()
+                            .put("version", ConjureVersion.current().get());
+                    ObjectNode failure = ConjureCli.OBJECT_MAPPER.createObjectNode()
+                            .put("error", "Invalid definition")
+                            .put("errorType", IllegalStateException.class.getName());
+                    BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    socket.getOutputStream().write(ConjureCli.OBJECT_MAPPER.writeValueAsBytes(greeting));
+                    socket.getOutputStream().write('\n');
+                    socket.getOutputStream().flush();
+                    reader.readLine();
+                    socket.getOutputStream().write(ConjureCli.OBJECT_MAPPER.writeValueAsBytes(failure));
+                    socket.getOutputStream().write('\n');
+                    socket.getOutputStream().flush();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            daemon.start();
+            assertThat(ConjureDaemon.tryCompile(portFile, configuration())).isFalse();
+            daemon.join();
+        }
+    }
+
+    @Test
+    public void resolvesPathsInWorkingDirectoryOfClient() throws Exception {
+        File home = folder.newFolder("home");
+        Process daemon = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Duser.home=" + home.getAbsolutePath(),
+                "-cp", System.getProperty("java.class.path"),
+                ConjureCli.class.getName(), "daemon")
+                .directory(folder.newFolder("elsewhere"))
+                .redirectErrorStream(true)
+                .redirectOutput(new File(folder.getRoot(), "daemon.log"))
+                .start();
+        try {
+            Path portFile = home.toPath().resolve(".conjure").resolve("daemon.port");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (!Files.isRegularFile(portFile)
+                    || !new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).contains(" ")) {
+                assertThat(daemon.isAlive()).isTrue();
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(100);
+            }
+
+            // relative to the working directory of this process, but not to that of the daemon
+            File outputFile = new File(folder.getRoot(), "conjureIr.json");
+            CliConfiguration configuration = CliConfiguration.builder()
+                    .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                    .outputIrFile(outputFile)
+                    .build();
+            assertThat(ConjureDaemon.tryCompile(portFile, configuration)).isTrue();
+            assertThat(outputFile).isFile();
+        } finally {
+            daemon.destroy();
+        }
+    }
+
+    @Test
+    public void doesNotForwardWithoutDaemon() {
+        assertThat(ConjureDaemon.tryCompile(folder.getRoot().toPath().resolve("daemon.port"), configuration()))
+                .isFalse();
+    }
+
+    private CliConfiguration configuration() {
+        return CliConfiguration.builder()
+                .inputFiles(ImmutableList.of())
+                .outputIrFile(new File(folder.getRoot(), "conjureIr.json"))
+                .build();
+    }
+
+    private Path writePortFile(int port) throws IOException {
+        Path portFile = folder.getRoot().toPath().resolve("daemon.port");
+        Files.write(portFile, (port + " token").getBytes(StandardCharsets.UTF_8));
+        return portFile;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class ConjureWatcherTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private static final String IMPORTS = "  conjure-imports:\n    common: ../shared/common.yml\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private File inputs;
+    private File common;
+    private File outputFile;
+    private ConjureWatcher watcher;
+    private Thread thread;
+
+    @Before
+    public void before() throws IOException {
+        inputs = folder.newFolder("inputs");
+        // the IR is written next to an imported file, i.e., into a watched directory
+        File shared = folder.newFolder("shared");
+        common = new File(shared, "common.yml");
+        outputFile = new File(shared, "ir.json");
+        write(common, "", "Common", "alias: string");
+        write(new File(inputs, "api.yml"), IMPORTS, "Api", "alias: common.Common");
+
+        watcher = new ConjureWatcher(
+                inputs,
+                () -> CliConfiguration.create(inputs.getPath(), outputFile.getPath()),
+                new PrintStream(output, true, "UTF-8"));
+        thread = new Thread(() -> {
+            try {
+                watcher.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+    }
+
+    @After
+    public void after() throws InterruptedException {
+        thread.interrupt();
+        thread.join(TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void recompilesOnChanges() throws Exception {
+        assertThat(awaitSummaries(1).get(0))
+                .startsWith("Compiled 1 files into " + outputFile.getPath())
+                .endsWith("after 0 changes: 1 types, 0 errors, 0 services");
+
+        // a burst of changes is compiled once
+        File extra = new File(inputs, "extra.yml");
+        write(extra, "", "Extra", "alias: string");
+        write(new File(inputs, "api.yml"), IMPORTS, "Api", "alias: common.Common\n      Other:\n        alias: string");
+        assertThat(awaitSummaries(2).get(1))
+                .startsWith("Compiled 2 files")
+                .endsWith("after 2 changes: 3 types, 0 errors, 0 services");
+        assertThat(typeNames()).containsExactlyInAnyOrder("Api", "Other", "Extra");
+
+        // imported files outside of the input are watched too
+        write(common, "", "Common", "alias: integer");
+        assertThat(awaitSummaries(3).get(2)).endsWith("after 1 changes: 3 types, 0 errors, 0 services");
+
+        Path canonicalExtra = extra.toPath().toRealPath();
+        assertThat(watcher.parseCache().files()).contains(canonicalExtra);
+        assertThat(extra.delete()).isTrue();
+        assertThat(awaitSummaries(4).get(3))
+                .startsWith("Compiled 1 files")
+                .endsWith("after 1 changes: 2 types, 0 errors, 0 services");
+        assertThat(typeNames()).containsExactlyInAnyOrder("Api", "Other");
+        assertThat(watcher.parseCache().files()).doesNotContain(canonicalExtra);
+
+        // writing the IR does not trigger another compilation
+        Thread.sleep(1000);
+        assertThat(summaries()).hasSize(4);
+    }
+
+    @Test
+    public void reportsFailedCompilationsAndKeepsWatching() throws Exception {
+        awaitSummaries(1);
+        write(new File(inputs, "api.yml"), IMPORTS, "Api", "alias: common.Missing");
+        assertThat(awaitSummaries(2).get(1)).startsWith("Compilation failed in ").contains("after 1 changes: ");
+
+        write(new File(inputs, "api.yml"), IMPORTS, "Api", "alias: string");
+        assertThat(awaitSummaries(3).get(2)).startsWith("Compiled 1 files");
+    }
+
+    private List<String> typeNames() throws IOException {
+        ConjureDefinition definition = ConjureCli.OBJECT_MAPPER.readValue(outputFile, ConjureDefinition.class);
+        return definition.getTypes().stream()
+                .map(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME).getName())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> awaitSummaries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (summaries().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        List<String> summaries = summaries();
+        assertThat(summaries).hasSize(count);
+        return summaries;
+    }
+
+    private List<String> summaries() {
+        String printed = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        return Arrays.stream(printed.split(System.lineSeparator()))
+                .filter(line -> !line.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static void write(File file, String imports, String typeName, String definition) throws IOException {
+        String content = "types:\n" + imports
+                + "  definitions:\n"
+                + "    default-package: com.palantir.test\n"
+                + "    objects:\n"
+                + "      " + typeName + ":\n"
+                + "        " + definition + "\n";
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class RoutesWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConjureDefinition definition;
+
+    @Before
+    public void before() throws IOException {
+        File input = folder.newFile("catalog.yml");
+        try (PrintWriter writer = new PrintWriter(input, "UTF-8")) {
+            writer.write("services:\n"
+                    + "  CatalogService:\n"
+                    + "    name: Catalog Service\n"
+                    + "    package: test.api\n"
+                    + "    base-path: /catalog\n"
+                    + "    endpoints:\n"
+                    + "      getItem:\n"
+                    + "        http: GET /{itemId}\n"
+                    + "        args:\n"
+                    + "          itemId: string\n"
+                    + "      listItems:\n"
+                    + "        http: GET /items\n"
+                    + "      getFile:\n"
+                    + "        http: GET /files/{path:.+}\n"
+                    + "        args:\n"
+                    + "          path: string\n"
+                    + "      deleteItem:\n"
+                    + "        http: DELETE /{itemId}\n"
+                    + "        args:\n"
+                    + "          itemId: string\n");
+        }
+        definition = Conjure.parse(ImmutableList.of(input));
+    }
+
+    @Test
+    public void writesDeterministicOutput() throws IOException {
+        assertThat(write(definition)).isEqualTo(write(definition));
+    }
+
+    @Test
+    public void routesRequests() throws IOException {
+        RoutingTable table = new RoutingTable(ByteBuffer.wrap(write(definition)));
+
+        assertThat(table.route("GET", "/catalog/items")).contains("CatalogService.listItems");
+        assertThat(table.route("GET", "/catalog/123")).contains("CatalogService.getItem");
+        assertThat(table.route("DELETE", "/catalog/123")).contains("CatalogService.deleteItem");
+        assertThat(table.route("GET", "/catalog/files/a")).contains("CatalogService.getFile");
+        assertThat(table.route("PUT", "/catalog/123")).isEmpty();
+        assertThat(table.route("GET", "/catalog")).isEmpty();
+    }
+
+    private static byte[] write(ConjureDefinition conjureDefinition) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RoutesWriter.write(conjureDefinition, out);
+        return out.toByteArray();
+    }
+
+    /** A minimal reader of the routing table format that only supports single-segment path parameters. */
+    private static final class RoutingTable {
+        private final ByteBuffer buffer;
+        private final int stringCount;
+        private final int methodCount;
+        private final int stringOffsets;
+        private final int stringData;
+        private final int methods;
+        private final int endpoints;
+        private final int nodes;
+        private final int edges;
+
+        RoutingTable(ByteBuffer buffer) {
+            this.buffer = buffer;
+            assertThat(buffer.getInt(0)).isEqualTo(RoutesWriter.MAGIC);
+            assertThat(buffer.getInt(4)).isEqualTo(RoutesWriter.FORMAT_VERSION);
+            stringCount = buffer.getInt(8);
+            int stringBytes = buffer.getInt(12);
+            methodCount = buffer.getInt(16);
+            int endpointCount = buffer.getInt(20);
+            int captureCount = buffer.getInt(24);
+            int nodeCount = buffer.getInt(28);
+            int edgeCount = buffer.getInt(32);
+
+            stringOffsets = 36;
+            stringData = stringOffsets + 4 * (stringCount + 1);
+            methods = stringData + stringBytes;
+            endpoints = methods + 8 * methodCount;
+            nodes = endpoints + 20 * endpointCount + 4 * captureCount;
+            edges = nodes + 20 * nodeCount;
+            assertThat(buffer.capacity()).isEqualTo(edges + 8 * edgeCount);
+        }
+
+        Optional<String> route(String method, String path) {
+            int node = RoutesWriter.NONE;
+            for (int i = 0; i < methodCount; i++) {
+                if (string(buffer.getInt(methods + 8 * i)).equals(method)) {
+                    node = buffer.getInt(methods + 8 * i + 4);
+                }
+            }
+            for (String segment : path.substring(1).split("/", -1)) {
+                if (node == RoutesWriter.NONE) {
+                    return Optional.empty();
+                }
+                node = child(node, segment);
+            }
+            if (node == RoutesWriter.NONE || buffer.getInt(nodes + 20 * node) == RoutesWriter.NONE) {
+                return Optional.empty();
+            }
+            int endpoint = endpoints + 20 * buffer.getInt(nodes + 20 * node);
+            return Optional.of(string(buffer.getInt(endpoint)) + "." + string(buffer.getInt(endpoint + 4)));
+        }
+
+        private int child(int node, String segment) {
+            int firstEdge = buffer.getInt(nodes + 20 * node + 12);
+            int edgeCount = buffer.getInt(nodes + 20 * node + 16);
+            for (int i = firstEdge; i < firstEdge + edgeCount; i++) {
+                if (string(buffer.getInt(edges + 8 * i)).equals(segment)) {
+                    return buffer.getInt(edges + 8 * i + 4);
+                }
+            }
+            return buffer.getInt(nodes + 20 * node + 4);
+        }
+
+        private String string(int index) {
+            assertThat(index).isBetween(0, stringCount - 1);
+            int start = buffer.getInt(stringOffsets + 4 * index);
+            int end = buffer.getInt(stringOffsets + 4 * (index + 1));
+            return new String(buffer.array(), stringData + start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+}